@@ -0,0 +1,64 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.BookAvailabilityService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whether a random book is on loan, asked to the active book index against the in-memory set of
+ * {@link BookAvailabilityService}, with every other book on loan. {@code load} times one full load of the set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Param({"100000"})
+    int books;
+
+    ConfigurableApplicationContext context;
+    LoanRepository loanRepository;
+    BookAvailabilityService bookAvailabilityService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, books);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("update loan set returned = false, active_book_id = id_book where mod(id_book, 2) = 0");
+        loanRepository = context.getBean(LoanRepository.class);
+        bookAvailabilityService = context.getBean(BookAvailabilityService.class);
+        bookAvailabilityService.check();
+        System.out.println("\nBooks on loan set: " + bookAvailabilityService.usage());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean query() {
+        return loanRepository.existsByActiveBookId(ThreadLocalRandom.current().nextLong(1, books + 1));
+    }
+
+    @Benchmark
+    public boolean memory() {
+        return bookAvailabilityService.isOnLoan(ThreadLocalRandom.current().nextLong(1, books + 1));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object load() {
+        return bookAvailabilityService.check();
+    }
+}
@@ -0,0 +1,109 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.LibraryApiApplication;
+import com.udemy.reactivelibrary.ReactiveLibraryApplication;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application on a private in-memory H2 database and seeds it with a configurable
+ * amount of rows, so every suite measures the real service, repository and mapping stack.
+ */
+public final class BenchmarkContext {
+
+    private static final int SEED_BATCH_SIZE = 5_000;
+
+    /**
+     * Seeded customers, with ids 1..500 named "customer 0".."customer 499".
+     */
+    public static final int CUSTOMERS = 500;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... extraProperties) {
+        return new SpringApplicationBuilder(LibraryApiApplication.class)
+                .properties(properties(extraProperties))
+                .run();
+    }
+
+    /**
+     * Boots the WebFlux and R2DBC variant of the application on its own private in-memory H2 database.
+     */
+    public static ConfigurableApplicationContext startReactive(String... extraProperties) {
+        return ReactiveLibraryApplication.builder()
+                .properties(properties(extraProperties))
+                .properties("spring.r2dbc.url=r2dbc:h2:mem:///bench-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1")
+                .run();
+    }
+
+    /**
+     * Inserts {@code books} books with isbn 1..books into the database of a reactive context.
+     */
+    public static void seedReactive(ConfigurableApplicationContext context, int books) {
+        DatabaseClient.create(context.getBean(ConnectionFactory.class))
+                .sql("insert into book (title, author, isbn) " +
+                        "select 'Book title ' || x, 'Author ' || mod(x, 1000), x from system_range(1, " + books + ")")
+                .fetch()
+                .rowsUpdated()
+                .block();
+    }
+
+    private static String[] properties(String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "spring.boot.admin.client.enabled=false",
+                "spring.main.banner-mode=off",
+                "spring.devtools.restart.enabled=false",
+                "logging.level.root=warn",
+                "library.overdue.enabled=false"));
+        properties.addAll(List.of(extraProperties));
+        return properties.toArray(new String[0]);
+    }
+
+    /**
+     * Inserts {@code books} books with id and isbn 1..books, {@link #CUSTOMERS} customers and {@code loans} returned
+     * loans spread over both.
+     */
+    public static void seed(ConfigurableApplicationContext context, int books, int loans) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = 1; i <= books; i++) {
+            batch.add(new Object[]{i, "Book title " + i, "Author " + (i % 1_000), i});
+            if (batch.size() == SEED_BATCH_SIZE || i == books) {
+                jdbcTemplate.batchUpdate("insert into book (id, title, author, isbn) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // keep the pooled book_seq generator clear of the seeded ids
+        jdbcTemplate.execute("alter sequence book_seq restart with " + (books + 100));
+
+        for (long i = 1; i <= CUSTOMERS; i++) {
+            batch.add(new Object[]{i, "customer " + (i - 1)});
+        }
+        jdbcTemplate.batchUpdate("insert into customer (id, name) values (?, ?)", batch);
+        batch.clear();
+        jdbcTemplate.execute("alter sequence customer_seq restart with " + (CUSTOMERS + 100));
+
+        // ids are contiguous on a freshly seeded database
+        Long firstBookId = jdbcTemplate.queryForObject("select min(id) from book", Long.class);
+        for (long i = 1; i <= loans; i++) {
+            batch.add(new Object[]{1 + i % CUSTOMERS, firstBookId + (i - 1) % books});
+            if (batch.size() == SEED_BATCH_SIZE || i == loans) {
+                jdbcTemplate.batchUpdate("insert into loan (customer_id, id_book, loan_date, returned) " +
+                        "values (?, ?, current_date, true)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
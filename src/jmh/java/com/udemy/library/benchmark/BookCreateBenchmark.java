@@ -0,0 +1,55 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@code BookServiceImpl.save} as the catalog grows. With the unique isbn index the duplicate check is
+ * an index probe done by the insert itself, so the sampled latency should stay flat across {@code books}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookCreateBenchmark {
+
+    @Param({"10000", "1000000", "3000000"})
+    int books;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    long nextIsbn;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, 0);
+        bookService = context.getBean(BookService.class);
+        nextIsbn = books + 1L;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book create() {
+        return bookService.save(Book.builder().title("new title").author("new author").isbn(nextIsbn++).build());
+    }
+
+    @Benchmark
+    public Object createDuplicated() {
+        try {
+            return bookService.save(Book.builder().title("new title").author("new author").isbn(1L).build());
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+}
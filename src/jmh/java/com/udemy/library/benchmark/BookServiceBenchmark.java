@@ -0,0 +1,54 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code BookServiceImpl.find} with the {@code Example}/{@code ExampleMatcher} filter used by {@code GET /api/books}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    int books;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, 0);
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> findWithoutFilter() {
+        return bookService.find(0, 20, new Book());
+    }
+
+    @Benchmark
+    public Page<Book> findByTitle() {
+        return bookService.find(0, 20, Book.builder().title("TITLE 42").build());
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthor() {
+        return bookService.find(0, 20, Book.builder().author("author 7").build());
+    }
+}
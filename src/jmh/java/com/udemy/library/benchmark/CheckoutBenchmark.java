@@ -0,0 +1,96 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.service.BookAvailabilityService;
+import com.udemy.library.service.CustomerService;
+import com.udemy.library.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent checkouts through {@code LoanService}. In {@code hot} every thread competes for the same book and
+ * returns it after a successful checkout, so most calls are rejected by the unique active book index. In
+ * {@code cold} each thread cycles through its own books and never contends with the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CheckoutBenchmark {
+
+    static final int BOOKS_PER_THREAD = 1000;
+
+    ConfigurableApplicationContext context;
+    LoanService loanService;
+    Customer customer;
+    JdbcTemplate jdbcTemplate;
+    long firstBookId;
+    final AtomicInteger threads = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int thread;
+        long next;
+
+        @Setup
+        public void setUp(CheckoutBenchmark benchmark) {
+            thread = benchmark.threads.getAndIncrement();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, BOOKS_PER_THREAD * 64, 0);
+        loanService = context.getBean(LoanService.class);
+        customer = context.getBean(CustomerService.class).resolve("benchmark");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        firstBookId = jdbcTemplate.queryForObject("select min(id) from book", Long.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void releaseBooks() {
+        jdbcTemplate.update("update loan set returned = true, active_book_id = null where returned = false");
+        // the books were returned behind the back of the in-memory set of books on loan
+        context.getBean(BookAvailabilityService.class).check();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object hot() {
+        return checkoutAndReturn(firstBookId);
+    }
+
+    @Benchmark
+    public Object cold(ThreadState state) {
+        long bookId = firstBookId + (long) (state.thread % 64) * BOOKS_PER_THREAD + state.next++ % BOOKS_PER_THREAD;
+        return checkoutAndReturn(bookId);
+    }
+
+    private Object checkoutAndReturn(long bookId) {
+        Book book = Book.builder().id(bookId).build();
+        Loan loan = Loan.builder().book(book).customer(customer).loanDate(LocalDate.now()).build();
+        try {
+            loan = loanService.save(loan);
+        } catch (BusinessException ex) {
+            return ex;
+        }
+        loan.setReturned(true);
+        return loanService.update(loan);
+    }
+}
@@ -0,0 +1,84 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.service.CustomerMigrationService;
+import com.udemy.library.service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latest loans of a random customer with the customer stored as free text on every loan and indexed as such
+ * ({@code legacy}), against the loans migrated by {@link CustomerMigrationService} to the indexed customer id
+ * ({@code migrated}). The setup prints the disk space of the loan table, indexes included, in both layouts and the
+ * time the migration took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerBenchmark {
+
+    @Param({"legacy", "migrated"})
+    String layout;
+
+    @Param({"10000"})
+    int books;
+
+    @Param({"1000000"})
+    int loans;
+
+    ConfigurableApplicationContext context;
+    JdbcTemplate jdbcTemplate;
+    CustomerService customerService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("library.customer-migration.enabled=false",
+                "library.customer-migration.chunk-size=10000");
+        BenchmarkContext.seed(context, books, loans);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        customerService = context.getBean(CustomerService.class);
+
+        // back to the layout before Customer existed
+        jdbcTemplate.update("update loan set customer = (select c.name from customer c where c.id = loan.customer_id), " +
+                "customer_id = null");
+        jdbcTemplate.execute("create index ix_loan_legacy_customer on loan (customer, id)");
+        System.out.println("\nLegacy loan table: " + diskSpace() + " KB");
+
+        if ("migrated".equals(layout)) {
+            long started = System.nanoTime();
+            long migrated = context.getBean(CustomerMigrationService.class).migrate();
+            jdbcTemplate.execute("drop index ix_loan_legacy_customer");
+            System.out.println("Migrated " + migrated + " loans in " + (System.nanoTime() - started) / 1_000_000
+                    + " ms, loan table: " + diskSpace() + " KB");
+        }
+    }
+
+    private long diskSpace() {
+        jdbcTemplate.execute("checkpoint");
+        return jdbcTemplate.queryForObject("select disk_space_used('LOAN') / 1024", Long.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> latestLoansOfCustomer() {
+        String name = "customer " + ThreadLocalRandom.current().nextInt(BenchmarkContext.CUSTOMERS);
+        if ("legacy".equals(layout)) {
+            return jdbcTemplate.queryForList("select id from loan where customer = ? order by id desc limit 20",
+                    Long.class, name);
+        }
+        Long customerId = customerService.findId(name).orElseThrow();
+        return jdbcTemplate.queryForList("select id from loan where customer_id = ? order by id desc limit 20",
+                Long.class, customerId);
+    }
+}
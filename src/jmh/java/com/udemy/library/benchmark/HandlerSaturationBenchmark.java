@@ -0,0 +1,75 @@
+package com.udemy.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of a slow, unindexed book search when far more clients than container threads hit it, in the
+ * {@code sync} and {@code async} execution modes. In {@code sync} every request waits for a blocked Tomcat thread;
+ * in {@code async} requests beyond the handler queue are rejected at once with 503, which {@link Outcome} counts.
+ * Compare the high percentiles of the two modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(64)
+public class HandlerSaturationBenchmark {
+
+    @Param({"sync", "async"})
+    String execution;
+
+    @Param({"200000"})
+    int books;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    URI search;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long ok;
+        public long rejected;
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "library.web.execution=" + execution,
+                "library.web.pool-size=8",
+                "library.web.queue-capacity=16",
+                "server.tomcat.threads.max=16",
+                "spring.cache.type=none");
+        BenchmarkContext.seed(context, books, 0);
+        String port = context.getEnvironment().getProperty("local.server.port");
+        search = URI.create("http://localhost:" + port + "/api/books?page=0&size=20&title=missing");
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int slowSearch(Outcome outcome) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(search).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 503) {
+            outcome.rejected++;
+        } else {
+            outcome.ok++;
+        }
+        return response.statusCode();
+    }
+}
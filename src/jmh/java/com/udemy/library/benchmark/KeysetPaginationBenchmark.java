@@ -0,0 +1,80 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookService;
+import com.udemy.library.service.BookSort;
+import com.udemy.library.service.Cursor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offset paging ({@code page}/{@code size} plus count) against keyset paging ({@code after} cursor) at the first page
+ * and at a deep page. Keyset pages should cost the same wherever they start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class KeysetPaginationBenchmark {
+
+    static final int SIZE = 20;
+
+    @Param({"1000000"})
+    int books;
+
+    @Param({"0", "10000"})
+    int page;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    Cursor byId;
+    Cursor byTitle;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, 0);
+        bookService = context.getBean(BookService.class);
+
+        if (page == 0) {
+            byId = Cursor.START;
+            byTitle = Cursor.START;
+        } else {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            int skipped = page * SIZE;
+            Long lastId = jdbcTemplate.queryForObject("select id from book order by id offset ? rows fetch next 1 rows only",
+                    Long.class, skipped - 1);
+            byId = Cursor.of(lastId, null);
+            byTitle = jdbcTemplate.queryForObject(
+                    "select id, title from book order by title, id offset ? rows fetch next 1 rows only",
+                    (rs, rowNum) -> Cursor.of(rs.getLong(1), rs.getString(2)), skipped - 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> offset() {
+        return bookService.find(page, SIZE, new Book());
+    }
+
+    @Benchmark
+    public Slice<Book> keysetById() {
+        return bookService.findAfter(byId, SIZE, new Book(), BookSort.ID);
+    }
+
+    @Benchmark
+    public Slice<Book> keysetByTitle() {
+        return bookService.findAfter(byTitle, SIZE, new Book(), BookSort.TITLE);
+    }
+}
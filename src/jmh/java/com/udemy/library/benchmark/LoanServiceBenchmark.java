@@ -0,0 +1,72 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.service.CustomerService;
+import com.udemy.library.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code LoanServiceImpl.save} over a loan history of {@code loans} rows. Books are checked out round robin and
+ * released again before every iteration; should an iteration wrap around, the rejected checkout still pays for the
+ * unique active book index lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanServiceBenchmark {
+
+    @Param({"10000"})
+    int books;
+
+    @Param({"10000", "100000"})
+    int loans;
+
+    ConfigurableApplicationContext context;
+    LoanService loanService;
+    Customer customer;
+    JdbcTemplate jdbcTemplate;
+    long firstBookId;
+    long next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, loans);
+        loanService = context.getBean(LoanService.class);
+        customer = context.getBean(CustomerService.class).resolve("benchmark");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        firstBookId = jdbcTemplate.queryForObject("select min(id) from book", Long.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void releaseBooks() {
+        jdbcTemplate.update("update loan set returned = true, active_book_id = null where returned = false");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object checkout() {
+        Book book = Book.builder().id(firstBookId + next++ % books).build();
+        Loan loan = Loan.builder().book(book).customer(customer).loanDate(LocalDate.now()).build();
+        try {
+            return loanService.save(loan);
+        } catch (BusinessException ex) {
+            return ex;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.LoanStatsService;
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loan totals plus those of one random book, computed by aggregate queries over the loan table against read from
+ * the counters of {@link LoanStatsService}, and one full {@code rebuild} of the counters. The default size keeps the
+ * seeding short; run with {@code -p loans=20000000} and a larger heap ({@code -jvmArgs -Xmx8g}) for the production
+ * sized table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanStatsBenchmark {
+
+    @Param({"10000"})
+    int books;
+
+    @Param({"1000000"})
+    int loans;
+
+    ConfigurableApplicationContext context;
+    LoanRepository loanRepository;
+    LoanStatsService loanStatsService;
+    JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, loans);
+        loanRepository = context.getBean(LoanRepository.class);
+        loanStatsService = context.getBean(LoanStatsService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // the counters were built at startup, before the seeding
+        loanStatsService.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long aggregateQueries() {
+        long bookId = ThreadLocalRandom.current().nextLong(1, books + 1);
+        return loanRepository.countAll() + loanRepository.countActive()
+                + jdbcTemplate.queryForObject("select count(*) from loan where id_book = ?", Long.class, bookId);
+    }
+
+    @Benchmark
+    public LoanStatsDTO counters() {
+        // seeded book ids equal their isbns
+        long bookId = ThreadLocalRandom.current().nextLong(1, books + 1);
+        return loanStatsService.stats(bookId, null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object rebuild() {
+        return loanStatsService.rebuild();
+    }
+}
@@ -0,0 +1,57 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.service.OverdueLoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A steady-state run of the overdue loan job: the history holds {@code loans} returned loans plus one active loan per
+ * {@code activeEvery} books, and every invocation makes one more active loan overdue. The cost should follow the
+ * newly overdue loans only, whatever the size of the history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OverdueJobBenchmark {
+
+    @Param({"10000"})
+    int books;
+
+    @Param({"100000", "1000000"})
+    int loans;
+
+    OverdueLoanService overdueLoanService;
+    ConfigurableApplicationContext context;
+    LocalDate today;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, loans);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // one active loan per book, taken on consecutive days so that each day makes exactly one of them overdue
+        jdbcTemplate.update("insert into loan (customer_id, id_book, loan_date, returned, active_book_id) " +
+                "select 1, id, dateadd('DAY', id - (select min(id) from book), date '2000-01-01'), false, id from book");
+        overdueLoanService = context.getBean(OverdueLoanService.class);
+        today = LocalDate.of(2000, 1, 15);
+        overdueLoanService.notifyOverdue(today);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long nextDay() {
+        today = today.plusDays(1);
+        return overdueLoanService.notifyOverdue(today);
+    }
+}
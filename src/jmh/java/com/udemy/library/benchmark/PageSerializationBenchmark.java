@@ -0,0 +1,90 @@
+package com.udemy.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookService;
+import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.PageDTO;
+import com.udemy.library.web.rest.mapper.BookMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson serialization of one page of {@code GET /api/books}, in microseconds per page:
+ * <ul>
+ *     <li>{@code pageImpl}: the previous response, a {@code PageImpl} of a mapped DTO list, with a reflective
+ *     {@link ObjectMapper}</li>
+ *     <li>{@code pageDto}: the compact {@link PageDTO} mapping lazily, with the application's Afterburner mapper</li>
+ *     <li>{@code pageDtoGzip}: the same plus the gzip compression the server applies to large responses</li>
+ * </ul>
+ * The bytes on the wire of each variant are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"10000"})
+    int books;
+
+    @Param({"20", "100"})
+    int size;
+
+    ConfigurableApplicationContext context;
+    ObjectMapper reflectiveMapper;
+    ObjectMapper objectMapper;
+    BookMapper bookMapper;
+    Page<Book> result;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, 0);
+        reflectiveMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = context.getBean(ObjectMapper.class);
+        bookMapper = context.getBean(BookMapper.class);
+        result = context.getBean(BookService.class).find(0, size, new Book());
+
+        System.out.printf("%n%d books: PageImpl %d bytes, PageDTO %d bytes, PageDTO gzip %d bytes%n", size,
+                pageImpl().length, pageDto().length, pageDtoGzip().length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] pageImpl() throws IOException {
+        PageImpl<BookDTO> page = new PageImpl<>(bookMapper.toDto(result.getContent()), PageRequest.of(0, size),
+                result.getTotalElements());
+        return reflectiveMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageDto() throws IOException {
+        return objectMapper.writeValueAsBytes(PageDTO.of(result, bookMapper::toDto));
+    }
+
+    @Benchmark
+    public byte[] pageDtoGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, PageDTO.of(result, bookMapper::toDto));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.udemy.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /api/books/{id}} on the servlet stack (Tomcat, JPA) and on the reactive stack (Netty, R2DBC) with
+ * {@code concurrency} requests in flight at once. {@link Requests} reports requests per second; run with
+ * {@code -prof gc} and divide {@code gc.alloc.rate.norm} by {@code concurrency} for the allocation per request,
+ * the per connection memory cost of each stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReactiveStackBenchmark {
+
+    @Param({"servlet", "reactive"})
+    String stack;
+
+    @Param({"256", "1024"})
+    int concurrency;
+
+    @Param({"10000"})
+    int books;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Requests {
+        public long ok;
+        public long failed;
+    }
+
+    @Setup
+    public void setUp() {
+        if ("reactive".equals(stack)) {
+            context = BenchmarkContext.startReactive();
+            BenchmarkContext.seedReactive(context, books);
+        } else {
+            context = BenchmarkContext.start("spring.cache.type=none");
+            BenchmarkContext.seed(context, books, 0);
+        }
+        // both seeds start from an empty table, so book ids are 1..books
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/books/";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void getById(Requests requests) {
+        CompletableFuture<HttpResponse<byte[]>>[] responses = new CompletableFuture[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            long id = 1 + ThreadLocalRandom.current().nextInt(books);
+            responses[i] = client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + id)).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+        }
+        CompletableFuture.allOf(responses).join();
+        for (CompletableFuture<HttpResponse<byte[]>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                requests.ok++;
+            } else {
+                requests.failed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.config.LogMarkers;
+import com.udemy.library.web.rest.dto.BookDTO;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request thread cost of the handler log lines. Each operation does {@code work} tokens of simulated request work
+ * and logs one line; subtract {@link #baseline()} for the cost of logging alone. The line is written to
+ * {@code target/jmh-request-logging.log} with the application's pattern, either by {@code sync} loggers, the
+ * previous setup, or by the {@code async} loggers of {@code log4j2.component.properties}.
+ * <ul>
+ *     <li>{@code toStringDto}: the DTO rendered with {@code toString()}, as before</li>
+ *     <li>{@code formattableDto}: the DTO appended garbage-free through {@code formatTo}</li>
+ *     <li>{@code sampledGet}: a high volume GET line sampled at 1%</li>
+ * </ul>
+ * Run with {@code -prof gc}: the async and formattable path should allocate close to nothing per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RequestLoggingBenchmark {
+
+    static final String PATTERN = "%d{DEFAULT} %5level [%15.15t] %-40.40c{1.} : %m%n%throwable";
+
+    @Param({"sync", "async"})
+    String logging;
+
+    @Param({"2000"})
+    int work;
+
+    LoggerContext context;
+    Logger log;
+    BookDTO bookDTO;
+    Long id;
+
+    @Setup
+    public void setUp() {
+        // must run before Log4j2 reads its properties, so loggers are not static in this class
+        System.setProperty("log4j2.contextSelector", "async".equals(logging)
+                ? "org.apache.logging.log4j.core.async.AsyncLoggerContextSelector"
+                : "org.apache.logging.log4j.core.selector.ClassLoaderContextSelector");
+        // block instead of discarding, so a saturated ring buffer shows up in the results
+        System.setProperty("log4j2.asyncQueueFullPolicy", "Default");
+
+        ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.setPackages("com.udemy.library.config");
+        builder.add(builder.newFilter("SamplingFilter", "NEUTRAL", "DENY")
+                .addAttribute("marker", LogMarkers.GET_BOOK.getName())
+                .addAttribute("rate", "0.01"));
+        builder.add(builder.newAppender("FILE", "RandomAccessFile")
+                .addAttribute("fileName", "target/jmh-request-logging.log")
+                .addAttribute("append", false)
+                .add(builder.newLayout("PatternLayout").addAttribute("pattern", PATTERN)));
+        builder.add(builder.newRootLogger(Level.INFO).add(builder.newAppenderRef("FILE")));
+        context = Configurator.initialize(builder.build());
+        log = context.getLogger("com.udemy.library.web.rest.BookResource");
+
+        bookDTO = BookDTO.builder().id(10L).title("As aventuras de Pi").author("Yann Martel").isbn(9788535902778L).build();
+        id = 10L;
+    }
+
+    @TearDown
+    public void tearDown() {
+        Configurator.shutdown(context);
+    }
+
+    @Benchmark
+    public void baseline() {
+        Blackhole.consumeCPU(work);
+    }
+
+    @Benchmark
+    public void toStringDto() {
+        Blackhole.consumeCPU(work);
+        log.info("Request to save book: {}", bookDTO.toString());
+    }
+
+    @Benchmark
+    public void formattableDto() {
+        Blackhole.consumeCPU(work);
+        log.info("Request to save book: {}", bookDTO);
+    }
+
+    @Benchmark
+    public void sampledGet() {
+        Blackhole.consumeCPU(work);
+        log.info(LogMarkers.GET_BOOK, "Request to find book by id: {}", id);
+    }
+}
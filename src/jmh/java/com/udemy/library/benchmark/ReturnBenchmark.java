@@ -0,0 +1,73 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Loan;
+import com.udemy.library.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Returning a crate of {@code crate} loans one {@code PATCH /api/loans/{id}} at a time ({@code getById} plus
+ * {@code update} per loan) against a single {@code LoanService.returnAll}. The loans are made active again before
+ * every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReturnBenchmark {
+
+    @Param({"10000"})
+    int books;
+
+    @Param({"100"})
+    int crate;
+
+    ConfigurableApplicationContext context;
+    LoanService loanService;
+    JdbcTemplate jdbcTemplate;
+    List<Long> loanIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, books, books);
+        loanService = context.getBean(LoanService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        loanIds = new ArrayList<>(jdbcTemplate.queryForList("select id from loan order by id limit ?", Long.class, crate));
+    }
+
+    @Setup(Level.Invocation)
+    public void lendCrate() {
+        jdbcTemplate.update("update loan set returned = false, active_book_id = id_book where id <= ?",
+                loanIds.get(loanIds.size() - 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        int returned = 0;
+        for (Long loanId : loanIds) {
+            Loan loan = loanService.getById(loanId).orElseThrow();
+            loan.setReturned(true);
+            loanService.update(loan);
+            returned++;
+        }
+        return returned;
+    }
+
+    @Benchmark
+    public long batch() {
+        return loanService.returnAll(loanIds, null).getReturned();
+    }
+}
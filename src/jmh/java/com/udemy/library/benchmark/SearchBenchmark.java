@@ -0,0 +1,124 @@
+package com.udemy.library.benchmark;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookSearchService;
+import com.udemy.library.service.BookService;
+import com.udemy.library.service.BookTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Title search through the {@code Example} {@code like '%term%'} query against the {@code book_token} inverted index.
+ * Titles are three words drawn from a {@code words} vocabulary, so a single word matches about
+ * {@code 3 * books / words} books and two words usually match one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    static final int SIZE = 20;
+    static final int SEED_BATCH_SIZE = 5_000;
+    static final String[] SYLLABLES = {"ba", "cá", "ção", "de", "fé", "gu", "li", "mo", "nhã", "pi", "ro", "sé", "tu", "vã", "xi", "zo"};
+
+    @Param({"1000000"})
+    int books;
+
+    @Param({"20000"})
+    int words;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    BookSearchService bookSearchService;
+    List<String> vocabulary;
+    Random random = new Random(42);
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookService = context.getBean(BookService.class);
+        bookSearchService = context.getBean(BookSearchService.class);
+        vocabulary = vocabulary(words);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Book> exampleOneWord() {
+        return bookService.findSlice(0, SIZE, Book.builder().title(word()).build());
+    }
+
+    @Benchmark
+    public Slice<Book> indexOneWord() {
+        return bookSearchService.search(word(), 0, SIZE);
+    }
+
+    @Benchmark
+    public Slice<Book> indexTwoWords() {
+        return bookSearchService.search(word() + " " + word(), 0, SIZE);
+    }
+
+    private String word() {
+        return vocabulary.get(random.nextInt(vocabulary.size()));
+    }
+
+    private static List<String> vocabulary(int words) {
+        List<String> vocabulary = new ArrayList<>(words);
+        for (int i = 0; i < words; i++) {
+            StringBuilder word = new StringBuilder();
+            int n = i;
+            do {
+                word.append(SYLLABLES[n % SYLLABLES.length]);
+                n /= SYLLABLES.length;
+            } while (n > 0);
+            vocabulary.add(word.toString());
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Inserts books and their index entries straight through JDBC, tokenized exactly like the service would.
+     */
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random seedRandom = new Random(7);
+        List<Object[]> bookBatch = new ArrayList<>(SEED_BATCH_SIZE);
+        List<Object[]> tokenBatch = new ArrayList<>(SEED_BATCH_SIZE * 6);
+        long tokenId = 0;
+        for (long id = 1; id <= books; id++) {
+            Book book = Book.builder()
+                    .id(id)
+                    .title(vocabulary.get(seedRandom.nextInt(words)) + " " + vocabulary.get(seedRandom.nextInt(words))
+                            + " " + vocabulary.get(seedRandom.nextInt(words)))
+                    .author("Author " + (id % 1_000))
+                    .isbn(id)
+                    .build();
+            bookBatch.add(new Object[]{book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn()});
+            for (Map.Entry<String, Integer> token : BookTokenizer.weights(book).entrySet()) {
+                tokenBatch.add(new Object[]{++tokenId, token.getKey(), id, token.getValue()});
+            }
+            if (bookBatch.size() == SEED_BATCH_SIZE || id == books) {
+                jdbcTemplate.batchUpdate("insert into book (id, title, author, isbn) values (?, ?, ?, ?)", bookBatch);
+                jdbcTemplate.batchUpdate("insert into book_token (id, token, book_id, weight) values (?, ?, ?, ?)", tokenBatch);
+                bookBatch.clear();
+                tokenBatch.clear();
+            }
+        }
+        jdbcTemplate.execute("alter sequence book_seq restart with " + (books + 100));
+        jdbcTemplate.execute("alter sequence book_token_seq restart with " + (tokenId + 100));
+    }
+}
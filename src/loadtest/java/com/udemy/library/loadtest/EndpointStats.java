@@ -0,0 +1,28 @@
+package com.udemy.library.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measured requests of one {@link Operation}. The response time runs from the moment the schedule meant to send the
+ * request, so time spent waiting behind a slow server or a full client counts, and is not omitted as it would be by
+ * timing from the actual send; the service time runs from the actual send and shows the difference.
+ */
+class EndpointStats {
+
+    final Histogram responseTime = new ConcurrentHistogram(3);
+    final Histogram serviceTime = new ConcurrentHistogram(3);
+    final LongAdder errors = new LongAdder();
+    final LongAdder skipped = new LongAdder();
+
+    void record(long intendedNanos, long sentNanos, long completedNanos, boolean success) {
+        responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos));
+        serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+        if (!success) {
+            errors.increment();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.udemy.library.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Open loop traffic: every {@link Operation} has its own schedule thread sending one request per period of its rate,
+ * whatever the server's response times. Requests are sent asynchronously, up to {@code maxInFlight} at a time; when
+ * the limit is reached the schedule waits and falls behind, and the delay shows up in the response times measured
+ * from the intended send time. Requests meant to be sent during the warm up are not measured.
+ * <p>
+ * Checkouts take books from a queue of free isbns and returns take loans from a queue of active loans, moving them to
+ * the other queue on success; either is skipped, and counted, when its queue is empty.
+ */
+class LoadGenerator {
+
+    private static final String JSON = "application/json";
+    private static final int SEARCH_AUTHORS = 1_000;
+    private static final Consumer<String> IGNORE = body -> {
+    };
+
+    private final LoadTestSettings settings;
+    private final URI baseUri;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Queue<Long> freeIsbns = new ConcurrentLinkedQueue<>();
+    private final Queue<long[]> activeLoans = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextIsbn;
+
+    /**
+     * @param activeLoans id and isbn of the loans seeded as active
+     */
+    LoadGenerator(LoadTestSettings settings, URI baseUri, Collection<long[]> activeLoans) {
+        this.settings = settings;
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.inFlight = new Semaphore(settings.maxInFlight);
+        this.activeLoans.addAll(activeLoans);
+        for (long isbn = settings.onLoan + 1; isbn <= settings.books; isbn++) {
+            freeIsbns.add(isbn);
+        }
+        this.nextIsbn = new AtomicLong(settings.books);
+        settings.rates.keySet().forEach(operation -> stats.put(operation, new EndpointStats()));
+    }
+
+    Map<Operation, EndpointStats> run() throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureStart = start + settings.warmup.toNanos();
+        long end = measureStart + settings.duration.toNanos();
+
+        List<Thread> schedules = new ArrayList<>();
+        settings.rates.forEach((operation, rate) -> {
+            if (rate > 0) {
+                Thread schedule = new Thread(() -> schedule(operation, rate, start, measureStart, end),
+                        "loadtest-" + operation.key());
+                schedule.start();
+                schedules.add(schedule);
+            }
+        });
+        for (Thread schedule : schedules) {
+            schedule.join();
+        }
+        if (!inFlight.tryAcquire(settings.maxInFlight, 1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Requests still in flight a minute after the run");
+        }
+        return stats;
+    }
+
+    private void schedule(Operation operation, int rate, long start, long measureStart, long end) {
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        Random random = new Random(settings.seed + operation.ordinal());
+        for (long n = 0; ; n++) {
+            long intended = start + n * period;
+            if (intended >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquireUninterruptibly();
+            send(operation, random, intended, intended >= measureStart ? stats.get(operation) : null);
+        }
+    }
+
+    private void send(Operation operation, Random random, long intended, EndpointStats measured) {
+        switch (operation) {
+            case CREATE:
+                long isbn = nextIsbn.incrementAndGet();
+                exchange(post("/api/books", "{\"title\":\"Load title " + isbn + "\",\"author\":\"Author "
+                        + isbn % SEARCH_AUTHORS + "\",\"isbn\":" + isbn + "}"), intended, measured, IGNORE);
+                break;
+            case GET:
+                exchange(get("/api/books/" + (1 + random.nextInt(settings.books))), intended, measured, IGNORE);
+                break;
+            case SEARCH:
+                exchange(get("/api/books/search?size=20&q=author%20" + random.nextInt(SEARCH_AUTHORS)), intended,
+                        measured, IGNORE);
+                break;
+            case CHECKOUT:
+                checkout(random, intended, measured);
+                break;
+            case RETURN:
+                returnLoan(intended, measured);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected operation: " + operation);
+        }
+    }
+
+    private void checkout(Random random, long intended, EndpointStats measured) {
+        Long isbn = freeIsbns.poll();
+        if (isbn == null) {
+            skip(measured);
+            return;
+        }
+        String customer = "customer " + random.nextInt(settings.customers);
+        exchange(post("/api/loans", "{\"isbn\":" + isbn + ",\"customer\":\"" + customer + "\"}"), intended,
+                measured, body -> {
+                    if (body == null) {
+                        freeIsbns.add(isbn);
+                    } else {
+                        activeLoans.add(new long[]{Long.parseLong(body.trim()), isbn});
+                    }
+                });
+    }
+
+    private void returnLoan(long intended, EndpointStats measured) {
+        long[] loan = activeLoans.poll();
+        if (loan == null) {
+            skip(measured);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/loans/" + loan[0]))
+                .header("Content-Type", JSON)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"returned\":true}"))
+                .build();
+        exchange(request, intended, measured, body -> {
+            if (body == null) {
+                activeLoans.add(loan);
+            } else {
+                freeIsbns.add(loan[1]);
+            }
+        });
+    }
+
+    private void skip(EndpointStats measured) {
+        inFlight.release();
+        if (measured != null) {
+            measured.skipped.increment();
+        }
+    }
+
+    /**
+     * Sends the request and hands the response body to {@code onResponse}, or {@code null} when it failed.
+     */
+    private void exchange(HttpRequest request, long intended, EndpointStats measured, Consumer<String> onResponse) {
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+            long completed = System.nanoTime();
+            boolean success = ex == null && response.statusCode() / 100 == 2;
+            try {
+                if (measured != null) {
+                    measured.record(intended, sent, completed, success);
+                }
+                onResponse.accept(success ? response.body() : null);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
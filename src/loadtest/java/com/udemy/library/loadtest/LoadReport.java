@@ -0,0 +1,54 @@
+package com.udemy.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Plain text result of a {@link LoadTest}: the settings, then one line per endpoint with its throughput and latency
+ * percentiles in milliseconds, first the response time (from the intended send time), then the service time. The
+ * layout is fixed so two runs can be compared with {@code diff}.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+    private static final String HEADER = String.format(Locale.ROOT, "%-24s %6s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "rate", "requests", "errors", "skipped", "req/s", "p50", "p95", "p99", "max");
+
+    private LoadReport() {
+    }
+
+    static String format(LoadTestSettings settings, Map<Operation, EndpointStats> stats) {
+        StringBuilder report = new StringBuilder()
+                .append("# library-api load test\n")
+                .append("# ").append(settings).append('\n')
+                .append('\n')
+                .append("## response time (ms), from the intended send time\n")
+                .append(HEADER);
+        stats.forEach((operation, endpoint) ->
+                line(report, settings, operation, endpoint, endpoint.responseTime));
+        report.append('\n')
+                .append("## service time (ms), from the actual send time\n")
+                .append(HEADER);
+        stats.forEach((operation, endpoint) ->
+                line(report, settings, operation, endpoint, endpoint.serviceTime));
+        return report.toString();
+    }
+
+    private static void line(StringBuilder report, LoadTestSettings settings, Operation operation,
+                             EndpointStats endpoint, Histogram histogram) {
+        long requests = histogram.getTotalCount();
+        report.append(String.format(Locale.ROOT, "%-24s %6d %9d %7d %7d %9.1f", operation.endpoint,
+                settings.rates.get(operation), requests, endpoint.errors.sum(), endpoint.skipped.sum(),
+                requests / (settings.duration.toMillis() / 1000.0)));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(Locale.ROOT, " %9.3f", millis(histogram.getValueAtPercentile(percentile))));
+        }
+        report.append(String.format(Locale.ROOT, " %9.3f%n", millis(histogram.getMaxValue())));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,101 @@
+package com.udemy.library.loadtest;
+
+import com.udemy.library.LibraryApiApplication;
+import com.udemy.library.service.BookAvailabilityService;
+import com.udemy.library.service.BookSearchService;
+import com.udemy.library.service.LoanStatsService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP load test of the book and loan endpoints. Boots the application on a private in-memory H2 database, seeds
+ * it as set by {@link LoadTestSettings}, drives the traffic mix with a {@link LoadGenerator} and writes the
+ * {@link LoadReport} to the output file:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="books=200000 get=800 duration=PT2M"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int SEED_BATCH_SIZE = 5_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.boot.admin.client.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "spring.devtools.restart.enabled=false",
+                        "logging.level.root=warn",
+                        "library.overdue.enabled=false")
+                .run()) {
+            List<long[]> activeLoans = seed(context.getBean(JdbcTemplate.class), settings);
+            // the in-memory indexes and counters were built at startup, before the seeding
+            context.getBean(BookSearchService.class).rebuild();
+            context.getBean(BookAvailabilityService.class).check();
+            context.getBean(LoanStatsService.class).rebuild();
+
+            URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            String report = LoadReport.format(settings, new LoadGenerator(settings, baseUri, activeLoans).run());
+
+            Path output = settings.output.toAbsolutePath();
+            Files.createDirectories(output.getParent());
+            Files.writeString(output, report);
+            System.out.print(report);
+            System.out.println("Written to " + output);
+        }
+    }
+
+    /**
+     * Inserts books with id and isbn 1..books, the customers, the returned loans spread over both and an active loan
+     * on each of the first {@code onLoan} books; returns the id and isbn of the active loans.
+     */
+    private static List<long[]> seed(JdbcTemplate jdbcTemplate, LoadTestSettings settings) {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = 1; i <= settings.books; i++) {
+            batch.add(new Object[]{i, "Book title " + i, "Author " + (i % 1_000), i});
+            flush(jdbcTemplate, "insert into book (id, title, author, isbn) values (?, ?, ?, ?)", batch,
+                    i == settings.books);
+        }
+        jdbcTemplate.execute("alter sequence book_seq restart with " + (settings.books + 100));
+
+        for (long i = 1; i <= settings.customers; i++) {
+            batch.add(new Object[]{i, "customer " + (i - 1)});
+            flush(jdbcTemplate, "insert into customer (id, name) values (?, ?)", batch, i == settings.customers);
+        }
+        jdbcTemplate.execute("alter sequence customer_seq restart with " + (settings.customers + 100));
+
+        for (long i = 1; i <= settings.loans; i++) {
+            batch.add(new Object[]{1 + i % settings.customers, 1 + (i - 1) % settings.books});
+            flush(jdbcTemplate, "insert into loan (customer_id, id_book, loan_date, returned) " +
+                    "values (?, ?, dateadd('DAY', -30, current_date), true)", batch, i == settings.loans);
+        }
+        for (long i = 1; i <= settings.onLoan; i++) {
+            batch.add(new Object[]{1 + i % settings.customers, i, i});
+            flush(jdbcTemplate, "insert into loan (customer_id, id_book, active_book_id, loan_date, returned) " +
+                    "values (?, ?, ?, current_date, false)", batch, i == settings.onLoan);
+        }
+        return jdbcTemplate.query("select l.id, b.isbn from loan l join book b on b.id = l.id_book " +
+                        "where l.active_book_id is not null order by l.id",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, String sql, List<Object[]> batch, boolean last) {
+        if (batch.size() == SEED_BATCH_SIZE || last && !batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
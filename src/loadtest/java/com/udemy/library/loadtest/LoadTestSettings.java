@@ -0,0 +1,94 @@
+package com.udemy.library.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Dataset, traffic mix and run length of a {@link LoadTest}, read from {@code key=value} arguments. Rates are
+ * requests per second per {@link Operation}, named after it in lower case ({@code get=400}); zero leaves it out.
+ */
+public class LoadTestSettings {
+
+    /** Seeded books, with id and isbn 1..books. */
+    int books = 100_000;
+    /** Seeded customers, named "customer 0".."customer N-1". */
+    int customers = 500;
+    /** Seeded returned loans, the loan history. */
+    int loans = 100_000;
+    /** Seeded active loans, on the first books, so returns have work from the start. */
+    int onLoan = 5_000;
+    Duration warmup = Duration.ofSeconds(15);
+    Duration duration = Duration.ofSeconds(60);
+    /** Requests in flight before the schedule waits; the wait still counts in the latency. */
+    int maxInFlight = 256;
+    long seed = 42;
+    Path output = Path.of("target", "loadtest-result.txt");
+    final Map<Operation, Integer> rates = new EnumMap<>(Map.of(
+            Operation.CREATE, 20,
+            Operation.GET, 400,
+            Operation.SEARCH, 100,
+            Operation.CHECKOUT, 40,
+            Operation.RETURN, 40));
+
+    static LoadTestSettings parse(String... args) {
+        LoadTestSettings settings = new LoadTestSettings();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            settings.set(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+        if (settings.onLoan > settings.books) {
+            throw new IllegalArgumentException("onLoan can't exceed books");
+        }
+        return settings;
+    }
+
+    private void set(String key, String value) {
+        switch (key) {
+            case "books":
+                books = Integer.parseInt(value);
+                break;
+            case "customers":
+                customers = Integer.parseInt(value);
+                break;
+            case "loans":
+                loans = Integer.parseInt(value);
+                break;
+            case "onLoan":
+                onLoan = Integer.parseInt(value);
+                break;
+            case "warmup":
+                warmup = Duration.parse(value);
+                break;
+            case "duration":
+                duration = Duration.parse(value);
+                break;
+            case "maxInFlight":
+                maxInFlight = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "output":
+                output = Path.of(value);
+                break;
+            default:
+                rates.put(Operation.named(key), Integer.parseInt(value));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" ");
+        joiner.add("books=" + books).add("customers=" + customers).add("loans=" + loans).add("onLoan=" + onLoan)
+                .add("warmup=" + warmup).add("duration=" + duration).add("maxInFlight=" + maxInFlight)
+                .add("seed=" + seed);
+        rates.forEach((operation, rate) -> joiner.add(operation.key() + "=" + rate));
+        return joiner.toString();
+    }
+}
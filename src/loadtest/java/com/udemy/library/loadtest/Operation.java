@@ -0,0 +1,32 @@
+package com.udemy.library.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Request types of the traffic mix, labelled with the endpoint they hit.
+ */
+enum Operation {
+    CREATE("POST /api/books"),
+    GET("GET /api/books/{id}"),
+    SEARCH("GET /api/books/search"),
+    CHECKOUT("POST /api/loans"),
+    RETURN("PATCH /api/loans/{id}");
+
+    final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation named(String key) {
+        try {
+            return valueOf(key.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown setting: " + key);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.udemy.library;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * Servlet stack on JPA. The R2DBC auto-configuration belongs to the reactive variant in
+ * {@code com.udemy.reactivelibrary} and would add a second transaction manager here.
+ */
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class LibraryApiApplication {
 
-    @Bean
-    public ModelMapper modelMapper() {return new ModelMapper();}
-
     public static void main(String[] args) {
         SpringApplication.run(LibraryApiApplication.class, args);
     }
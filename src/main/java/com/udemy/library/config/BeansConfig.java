@@ -1,8 +1,19 @@
 package com.udemy.library.config;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class BeansConfig {
 
+    /**
+     * Generated accessors instead of reflection for the DTO getters and setters, picked up by the auto-configured
+     * {@code ObjectMapper}.
+     */
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
 }
@@ -0,0 +1,29 @@
+package com.udemy.library.config;
+
+import com.udemy.library.service.BookSearchService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * {@code /actuator/booksearch}: {@code POST} rebuilds the search index from the book table, for books written
+ * outside of the services, and reports how many books it indexed.
+ */
+@Component
+@Endpoint(id = "booksearch")
+public class BookSearchEndpoint {
+
+    private final BookSearchService bookSearchService;
+
+    public BookSearchEndpoint(BookSearchService bookSearchService) {
+        this.bookSearchService = bookSearchService;
+    }
+
+    @WriteOperation
+    public Map<String, Long> rebuild() {
+        return Collections.singletonMap("indexed", bookSearchService.rebuild());
+    }
+}
@@ -0,0 +1,120 @@
+package com.udemy.library.config;
+
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.BookService;
+import com.udemy.library.service.LoanService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call to the book and loan services and repositories. Timers are tagged with the interface, the method
+ * and the outcome: {@code found} for a normal completion, {@code not_found} for an empty {@link Optional} or a
+ * {@code null} result, {@code business_error} for a {@link BusinessException} and {@code error} for anything else.
+ * Business errors are also counted by exception type. Percentile histograms are switched on in the configuration.
+ */
+@Aspect
+@Component
+public class CallMetricsAspect {
+
+    public static final String SERVICE_CALLS = "library.service.calls";
+    public static final String REPOSITORY_CALLS = "library.repository.calls";
+    public static final String BUSINESS_ERRORS = "library.business.errors";
+
+    private static final List<Class<?>> SERVICES = List.of(BookService.class, LoanService.class);
+    private static final List<Class<?>> REPOSITORIES = List.of(BookRepository.class, LoanRepository.class);
+
+    enum Outcome {
+        FOUND, NOT_FOUND, BUSINESS_ERROR, ERROR;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Class<?>, Map<Method, Timer[]>> timers = new ConcurrentHashMap<>();
+
+    public CallMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("(target(com.udemy.library.service.BookService) || target(com.udemy.library.service.LoanService)) " +
+            "&& !execution(* java.lang.Object.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_CALLS, SERVICES, joinPoint);
+    }
+
+    @Around("(target(com.udemy.library.repository.BookRepository) " +
+            "|| target(com.udemy.library.repository.LoanRepository)) && !execution(* java.lang.Object.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_CALLS, REPOSITORIES, joinPoint);
+    }
+
+    private Object time(String name, List<Class<?>> types, ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = typeOf(types, joinPoint.getTarget());
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = registry.config().clock().monotonicTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = result == null && method.getReturnType() != void.class
+                    || result instanceof Optional && ((Optional<?>) result).isEmpty()
+                    ? Outcome.NOT_FOUND : Outcome.FOUND;
+            return result;
+        } catch (BusinessException ex) {
+            outcome = Outcome.BUSINESS_ERROR;
+            Counter.builder(BUSINESS_ERRORS)
+                    .tag("type", type.getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("exception", ex.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+            throw ex;
+        } finally {
+            timer(name, type, method, outcome)
+                    .record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Registered timers are cached per interface and method, so the hot path does not build meter ids.
+     */
+    private Timer timer(String name, Class<?> type, Method method, Outcome outcome) {
+        Timer[] byOutcome = timers.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new Timer[Outcome.values().length]);
+        Timer timer = byOutcome[outcome.ordinal()];
+        if (timer == null) {
+            // a racing thread registers the same meter, the registry returns the existing one
+            timer = Timer.builder(name)
+                    .tag("type", type.getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome.tag)
+                    .register(registry);
+            byOutcome[outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+
+    private static Class<?> typeOf(List<Class<?>> types, Object target) {
+        for (Class<?> type : types) {
+            if (type.isInstance(target)) {
+                return type;
+            }
+        }
+        return target.getClass();
+    }
+}
@@ -0,0 +1,38 @@
+package com.udemy.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection hold time per endpoint: the {@link RequestEndpoint} interceptor tags the request thread and the
+ * data source is wrapped in a {@link HoldTimeDataSource}. The registry is looked up on first use, since post
+ * processors are created before the meter registry.
+ */
+@Configuration
+public class ConnectionMetricsConfig implements WebMvcConfigurer {
+
+    @Bean
+    public static BeanPostProcessor holdTimeDataSourcePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof HoldTimeDataSource)) {
+                    return new HoldTimeDataSource((DataSource) bean, registry::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestEndpoint());
+    }
+}
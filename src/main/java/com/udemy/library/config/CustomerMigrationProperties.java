@@ -0,0 +1,23 @@
+package com.udemy.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the migration of free text loan customers to {@code Customer} rows, under
+ * {@code library.customer-migration}.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.customer-migration")
+public class CustomerMigrationProperties {
+
+    /**
+     * Whether the migration runs at startup; it can still be triggered through {@code CustomerMigrationService}.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Loans migrated per transaction.
+     */
+    private int chunkSize = 1_000;
+}
@@ -0,0 +1,21 @@
+package com.udemy.library.config;
+
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class HibernateStatisticsConfig {
+
+    /**
+     * Installs {@link SlowQueryStatistics} as the statistics of the session factory.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryStatisticsCustomizer(SlowQueryProperties properties) {
+        StatisticsFactory factory = sessionFactory -> new SlowQueryStatistics(sessionFactory, properties);
+        return hibernateProperties -> hibernateProperties.put("hibernate.stats.factory", factory);
+    }
+}
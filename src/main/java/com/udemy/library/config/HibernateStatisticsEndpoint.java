@@ -0,0 +1,80 @@
+package com.udemy.library.config;
+
+import com.udemy.library.web.rest.dto.HibernateStatisticsDTO;
+import com.udemy.library.web.rest.dto.QueryStatisticsDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/hibernate}: query, entity and collection counters of the session factory plus its slowest queries.
+ * {@code DELETE} resets them.
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private static final int DEFAULT_SLOWEST = 10;
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public HibernateStatisticsDTO statistics(@Nullable Integer slowest) {
+        return HibernateStatisticsDTO.builder()
+                .enabled(statistics.isStatisticsEnabled())
+                .since(statistics.getStartTime())
+                .queryExecutionCount(statistics.getQueryExecutionCount())
+                .queryExecutionMaxTime(statistics.getQueryExecutionMaxTime())
+                .queryExecutionMaxTimeQuery(statistics.getQueryExecutionMaxTimeQueryString())
+                .prepareStatementCount(statistics.getPrepareStatementCount())
+                .entityLoadCount(statistics.getEntityLoadCount())
+                .entityFetchCount(statistics.getEntityFetchCount())
+                .entityInsertCount(statistics.getEntityInsertCount())
+                .entityUpdateCount(statistics.getEntityUpdateCount())
+                .entityDeleteCount(statistics.getEntityDeleteCount())
+                .collectionLoadCount(statistics.getCollectionLoadCount())
+                .collectionFetchCount(statistics.getCollectionFetchCount())
+                .transactionCount(statistics.getTransactionCount())
+                .slowestQueries(slowestQueries(slowest == null ? DEFAULT_SLOWEST : slowest))
+                .build();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        statistics.clear();
+    }
+
+    private List<QueryStatisticsDTO> slowestQueries(int limit) {
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> toDto(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(QueryStatisticsDTO::getExecutionMaxTime).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static QueryStatisticsDTO toDto(String query, QueryStatistics queryStatistics) {
+        return QueryStatisticsDTO.builder()
+                .query(query)
+                .executionCount(queryStatistics.getExecutionCount())
+                .executionRowCount(queryStatistics.getExecutionRowCount())
+                .executionAvgTime(queryStatistics.getExecutionAvgTime())
+                .executionMaxTime(queryStatistics.getExecutionMaxTime())
+                .executionMinTime(queryStatistics.getExecutionMinTime())
+                .build();
+    }
+}
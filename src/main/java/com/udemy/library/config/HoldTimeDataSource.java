@@ -0,0 +1,70 @@
+package com.udemy.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times how long each connection is held, from {@code getConnection()} to {@code close()}, and records it under
+ * {@link #CONNECTION_HOLD} tagged with the {@link RequestEndpoint} that asked for it. Together with the pool wait time
+ * this tells which endpoint keeps the pool busy.
+ */
+public class HoldTimeDataSource extends DelegatingDataSource {
+
+    public static final String CONNECTION_HOLD = "library.connection.hold";
+
+    private final Supplier<MeterRegistry> registry;
+
+    public HoldTimeDataSource(DataSource targetDataSource, Supplier<MeterRegistry> registry) {
+        super(targetDataSource);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        MeterRegistry meterRegistry = registry.get();
+        String endpoint = RequestEndpoint.current();
+        long start = meterRegistry.config().clock().monotonicTime();
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if ("close".equals(method.getName()) && !closed[0]) {
+                        closed[0] = true;
+                        Timer.builder(CONNECTION_HOLD)
+                                .tag("endpoint", endpoint)
+                                .register(meterRegistry)
+                                .record(meterRegistry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,34 @@
+package com.udemy.library.config;
+
+import com.udemy.library.service.LoanStatsService;
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import com.udemy.library.web.rest.dto.LoanStatsVerificationDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/loanstats}: the loan totals kept in memory. {@code POST} rebuilds them from the loan table and
+ * reports how far they had drifted.
+ */
+@Component
+@Endpoint(id = "loanstats")
+public class LoanStatsEndpoint {
+
+    private final LoanStatsService loanStatsService;
+
+    public LoanStatsEndpoint(LoanStatsService loanStatsService) {
+        this.loanStatsService = loanStatsService;
+    }
+
+    @ReadOperation
+    public LoanStatsDTO totals() {
+        return loanStatsService.stats(null, null);
+    }
+
+    @WriteOperation
+    public LoanStatsVerificationDTO rebuild() {
+        return loanStatsService.rebuild();
+    }
+}
@@ -0,0 +1,24 @@
+package com.udemy.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the loan statistics, under {@code library.loan-stats}.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.loan-stats")
+public class LoanStatsProperties {
+
+    /**
+     * Whether the counters are built at startup and verified on schedule; they are still maintained otherwise.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between two verification runs, also read by the {@code @Scheduled} trigger.
+     */
+    private Duration verifyInterval = Duration.ofHours(6);
+}
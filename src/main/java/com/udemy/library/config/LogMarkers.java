@@ -0,0 +1,21 @@
+package com.udemy.library.config;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+
+/**
+ * Markers of the high volume GET request logs. Each is sampled at the rate given to its {@link SamplingFilter} in
+ * {@code log4j2-spring.xml}.
+ */
+public final class LogMarkers {
+
+    public static final Marker SAMPLED = MarkerManager.getMarker("SAMPLED");
+
+    public static final Marker GET_BOOK = MarkerManager.getMarker("GET_BOOK").setParents(SAMPLED);
+    public static final Marker FIND_BOOKS = MarkerManager.getMarker("FIND_BOOKS").setParents(SAMPLED);
+    public static final Marker SEARCH_BOOKS = MarkerManager.getMarker("SEARCH_BOOKS").setParents(SAMPLED);
+    public static final Marker FIND_LOANS = MarkerManager.getMarker("FIND_LOANS").setParents(SAMPLED);
+
+    private LogMarkers() {
+    }
+}
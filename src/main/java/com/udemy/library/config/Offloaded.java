@@ -0,0 +1,13 @@
+package com.udemy.library.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks controllers whose handlers block on the database. With {@code library.web.execution=async} their handlers run
+ * on the bounded handler executor instead of the servlet container worker thread.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Offloaded {
+}
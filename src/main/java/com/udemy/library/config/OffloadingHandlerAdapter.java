@@ -0,0 +1,86 @@
+package com.udemy.library.config;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the handlers of {@link Offloaded} controllers on a dedicated executor. Arguments are still resolved and
+ * validated on the worker thread; only the handler body moves, and its result comes back as a
+ * {@link CompletableFuture}, which Spring MVC completes through the servlet async support. Submitting to a full
+ * executor throws {@link java.util.concurrent.RejectedExecutionException} before the request goes async. The
+ * {@link RequestEndpoint} of the request thread is carried over to the handler thread.
+ */
+public class OffloadingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final Executor handlerExecutor;
+
+    public OffloadingHandlerAdapter(Executor handlerExecutor) {
+        this.handlerExecutor = handlerExecutor;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (!isOffloaded(handlerMethod)) {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+        return new OffloadedHandlerMethod(handlerMethod, handlerExecutor);
+    }
+
+    private boolean isOffloaded(HandlerMethod handlerMethod) {
+        Class<?> returnType = handlerMethod.getReturnType().getParameterType();
+        return AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), Offloaded.class)
+                && !isAsync(returnType);
+    }
+
+    private boolean isAsync(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType)
+                || DeferredResult.class.isAssignableFrom(returnType)
+                || Callable.class.isAssignableFrom(returnType)
+                || WebAsyncTask.class.isAssignableFrom(returnType)
+                || ResponseBodyEmitter.class.isAssignableFrom(returnType)
+                || StreamingResponseBody.class.isAssignableFrom(returnType);
+    }
+
+    private static class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        private final Executor executor;
+
+        OffloadedHandlerMethod(HandlerMethod handlerMethod, Executor executor) {
+            super(handlerMethod);
+            this.executor = executor;
+        }
+
+        @Override
+        public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+                                       Object... providedArgs) throws Exception {
+            Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+            String endpoint = RequestEndpoint.current();
+            return CompletableFuture.supplyAsync(() -> {
+                RequestEndpoint.set(endpoint);
+                try {
+                    return doInvoke(args);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                } finally {
+                    RequestEndpoint.set(null);
+                }
+            }, executor);
+        }
+    }
+}
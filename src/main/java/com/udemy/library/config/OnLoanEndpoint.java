@@ -0,0 +1,34 @@
+package com.udemy.library.config;
+
+import com.udemy.library.service.BookAvailabilityService;
+import com.udemy.library.web.rest.dto.OnLoanCheckDTO;
+import com.udemy.library.web.rest.dto.OnLoanSetDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/onloan}: size and memory of the in-memory set of books on loan. {@code POST} reloads it from the
+ * loan table and reports the books it had missed or kept.
+ */
+@Component
+@Endpoint(id = "onloan")
+public class OnLoanEndpoint {
+
+    private final BookAvailabilityService bookAvailabilityService;
+
+    public OnLoanEndpoint(BookAvailabilityService bookAvailabilityService) {
+        this.bookAvailabilityService = bookAvailabilityService;
+    }
+
+    @ReadOperation
+    public OnLoanSetDTO usage() {
+        return bookAvailabilityService.usage();
+    }
+
+    @WriteOperation
+    public OnLoanCheckDTO check() {
+        return bookAvailabilityService.check();
+    }
+}
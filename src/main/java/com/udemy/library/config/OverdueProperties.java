@@ -0,0 +1,37 @@
+package com.udemy.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Settings of the overdue loan job, under {@code library.overdue}.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.overdue")
+public class OverdueProperties {
+
+    /**
+     * Whether the scheduled run is active; the job can still be triggered through {@code OverdueLoanService}.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a book may stay loaned before the loan is overdue.
+     */
+    private Period loanPeriod = Period.ofDays(14);
+
+    /**
+     * Delay between two runs, also read by the {@code @Scheduled} trigger.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    private int chunkSize = 500;
+
+    /**
+     * Bounds the work of a single run; whatever is left is picked up by the next one.
+     */
+    private int maxChunksPerRun = 100;
+}
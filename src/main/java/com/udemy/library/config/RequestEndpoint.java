@@ -0,0 +1,51 @@
+package com.udemy.library.config;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Remembers which endpoint the current thread is serving, as the HTTP method and the matched path pattern, so that
+ * resources acquired on its behalf can be tagged with it. Work handed to other threads carries the endpoint over
+ * with {@link #set(String)}; anything outside a request reports {@link #NONE}.
+ */
+public class RequestEndpoint implements AsyncHandlerInterceptor {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    public static String current() {
+        String endpoint = CURRENT.get();
+        return endpoint != null ? endpoint : NONE;
+    }
+
+    public static void set(String endpoint) {
+        if (endpoint == null || NONE.equals(endpoint)) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(endpoint);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        set(pattern != null ? request.getMethod() + " " + pattern : null);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        CURRENT.remove();
+    }
+}
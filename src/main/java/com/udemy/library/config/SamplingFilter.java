@@ -0,0 +1,87 @@
+package com.udemy.library.config;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.apache.logging.log4j.message.Message;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets through only a {@code rate} fraction of the events carrying {@code marker}, or one of its children; other
+ * events are left to the rest of the configuration. As a context-wide filter it runs before the level check, so a
+ * sampled-out event never builds its message. The fixed arity overloads avoid the varargs array.
+ */
+@Plugin(name = "SamplingFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class SamplingFilter extends AbstractFilter {
+
+    private final Marker marker;
+    private final double rate;
+
+    private SamplingFilter(Marker marker, double rate) {
+        super(Result.NEUTRAL, Result.DENY);
+        this.marker = marker;
+        this.rate = rate;
+    }
+
+    @PluginFactory
+    public static SamplingFilter createFilter(@PluginAttribute("marker") String marker,
+                                              @PluginAttribute(value = "rate", defaultDouble = 1.0) double rate) {
+        return new SamplingFilter(MarkerManager.getMarker(marker), rate);
+    }
+
+    private Result sample(Marker eventMarker) {
+        if (eventMarker == null || !eventMarker.isInstanceOf(marker)) {
+            return Result.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate ? onMatch : onMismatch;
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        return sample(event.getMarker());
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, Message msg, Throwable t) {
+        return sample(marker);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, Object msg, Throwable t) {
+        return sample(marker);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object... params) {
+        return sample(marker);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0) {
+        return sample(marker);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1) {
+        return sample(marker);
+    }
+
+    @Override
+    public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2) {
+        return sample(marker);
+    }
+
+    @Override
+    public String toString() {
+        return marker.getName() + " at " + rate;
+    }
+}
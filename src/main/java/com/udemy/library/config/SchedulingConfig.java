@@ -0,0 +1,24 @@
+package com.udemy.library.config;
+
+import com.udemy.library.service.OverdueLoanNotifier;
+import com.udemy.library.service.impl.LoggingOverdueLoanNotifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({OverdueProperties.class, LoanStatsProperties.class, CustomerMigrationProperties.class})
+public class SchedulingConfig {
+
+    /**
+     * Default overdue loan notifier, replaced by any other {@link OverdueLoanNotifier} bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OverdueLoanNotifier.class)
+    public OverdueLoanNotifier overdueLoanNotifier() {
+        return new LoggingOverdueLoanNotifier();
+    }
+}
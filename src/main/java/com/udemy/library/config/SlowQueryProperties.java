@@ -0,0 +1,24 @@
+package com.udemy.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the slow query log, under {@code library.slow-query}. Both need Hibernate statistics to be enabled.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.slow-query")
+public class SlowQueryProperties {
+
+    /**
+     * Queries taking at least this long are always logged.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Fraction, between 0 and 1, of the faster queries that are logged as well.
+     */
+    private double sampleRate = 0.0;
+}
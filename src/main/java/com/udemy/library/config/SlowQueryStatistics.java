@@ -0,0 +1,35 @@
+package com.udemy.library.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hibernate statistics that also log every query over the threshold, and a sample of the others, to the
+ * {@code library.slow-query} logger, which is routed to an asynchronous appender. Hibernate only reports query
+ * timings while statistics are enabled.
+ */
+@Log4j2(topic = "library.slow-query")
+public class SlowQueryStatistics extends StatisticsImpl {
+
+    private final long thresholdMillis;
+    private final double sampleRate;
+
+    public SlowQueryStatistics(SessionFactoryImplementor sessionFactory, SlowQueryProperties properties) {
+        super(sessionFactory);
+        this.thresholdMillis = properties.getThreshold().toMillis();
+        this.sampleRate = properties.getSampleRate();
+    }
+
+    @Override
+    public void queryExecuted(String query, int rows, long time) {
+        super.queryExecuted(query, rows, time);
+        if (time >= thresholdMillis) {
+            log.warn("Slow query, {} ms, {} rows: {}", time, rows, query);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled query, {} ms, {} rows: {}", time, rows, query);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.udemy.library.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async execution mode of the {@link Offloaded} controllers. The handler executor has a fixed number of threads and a
+ * bounded queue with the abort policy, so under saturation requests wait in an explicit queue of known size and the
+ * rest are rejected with 503 instead of piling up behind blocked container threads.
+ */
+@Configuration
+@EnableConfigurationProperties(WebExecutionProperties.class)
+@ConditionalOnProperty(prefix = "library.web", name = "execution", havingValue = "async")
+@Log4j2
+public class WebExecutionConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor handlerExecutor(WebExecutionProperties properties) {
+        log.info("Offloaded controllers run on {} handler threads with a queue of {}",
+                properties.getPoolSize(), properties.getQueueCapacity());
+        return new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), new CustomizableThreadFactory("handler-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean
+    public WebMvcRegistrations offloadingRegistrations(ThreadPoolExecutor handlerExecutor) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new OffloadingHandlerAdapter(handlerExecutor);
+            }
+        };
+    }
+}
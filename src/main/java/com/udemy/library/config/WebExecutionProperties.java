@@ -0,0 +1,35 @@
+package com.udemy.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * How {@link Offloaded} controllers run, under {@code library.web}.
+ */
+@Data
+@ConfigurationProperties(prefix = "library.web")
+public class WebExecutionProperties {
+
+    public enum Mode {
+        /**
+         * Handlers run on the servlet container worker thread, as plain Spring MVC does.
+         */
+        SYNC,
+        /**
+         * Handlers run on the bounded handler executor and the worker thread is released right away.
+         */
+        ASYNC
+    }
+
+    private Mode execution = Mode.SYNC;
+
+    /**
+     * Threads of the handler executor, roughly the number of concurrent database calls worth running.
+     */
+    private int poolSize = 16;
+
+    /**
+     * Requests waiting for a handler thread; once full, further requests are rejected with 503.
+     */
+    private int queueCapacity = 100;
+}
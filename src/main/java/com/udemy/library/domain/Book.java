@@ -5,22 +5,47 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
+@Table(indexes = {@Index(name = Book.ISBN_INDEX, columnList = "isbn", unique = true),
+        @Index(name = "ix_book_title", columnList = "title, id"),
+        @Index(name = "ix_book_author", columnList = "author, id")})
 public class Book {
 
+    public static final String ISBN_INDEX = "ux_book_isbn";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
+
+    /**
+     * Title and author are required, so the keyset listings can walk the {@code (title, id)} and
+     * {@code (author, id)} indexes without special casing nulls.
+     */
+    @Column(nullable = false)
     private String title;
+    @Column(nullable = false)
     private String author;
     private Long isbn;
+
+    /**
+     * Optimistic lock, also the source of the book's ETag. The column default keeps plain SQL inserts valid.
+     */
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
 }
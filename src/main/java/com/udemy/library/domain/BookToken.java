@@ -0,0 +1,36 @@
+package com.udemy.library.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * One entry of the title/author inverted index: {@code token} occurs in the book {@code bookId}, with
+ * {@code weight} summing its occurrences (title words count more than author words).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "book_token",
+        uniqueConstraints = @UniqueConstraint(name = "ux_book_token", columnNames = {"token", "book_id"}),
+        indexes = @Index(name = "ix_book_token_book", columnList = "book_id"))
+public class BookToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_token_seq")
+    @SequenceGenerator(name = "book_token_seq", sequenceName = "book_token_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String token;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    private int weight;
+}
@@ -0,0 +1,27 @@
+package com.udemy.library.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDate;
+
+/**
+ * High-water mark of an incremental background job: the ({@code lastLoanDate}, {@code lastId}) key of the last loan
+ * it handled, so the next run resumes right after it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class JobCheckpoint {
+
+    @Id
+    private String name;
+    private LocalDate lastLoanDate;
+    private Long lastId;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -13,12 +14,28 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Loan.ACTIVE_BOOK_CONSTRAINT, columnNames = "active_book_id"),
+        indexes = {@Index(name = "ix_loan_returned_loan_date", columnList = "returned, loan_date, id"),
+                @Index(name = "ix_loan_customer", columnList = "customer_id, id")})
 public class Loan {
 
+    public static final String ACTIVE_BOOK_CONSTRAINT = "ux_loan_active_book";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    private String customer;
+
+    @JoinColumn(name = "customer_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    private Customer customer;
+
+    /**
+     * Free text customer of the loans written before {@link Customer} existed, cleared as
+     * {@code CustomerMigrationService} moves them to {@link #customer}. Can be dropped once migrated everywhere.
+     */
+    @Column(name = "customer")
+    private String legacyCustomer;
 
     @JoinColumn(name = "id_book")
     @ManyToOne
@@ -26,4 +43,28 @@ public class Loan {
     private LocalDate loanDate;
     private Boolean returned;
 
+    /**
+     * Id of the book while the loan is active and null once it is returned. The unique constraint lets the
+     * database guarantee a single active loan per book, since unique indexes accept any number of nulls.
+     */
+    @Column(name = "active_book_id")
+    private Long activeBookId;
+
+    /**
+     * New loans are stored as not returned rather than null, so active loans are a single {@code returned = false}
+     * range of the {@code (returned, loan_date)} index.
+     */
+    @PrePersist
+    void prePersist() {
+        if (returned == null) {
+            returned = false;
+        }
+        updateActiveBookId();
+    }
+
+    @PreUpdate
+    void updateActiveBookId() {
+        this.activeBookId = book == null || Boolean.TRUE.equals(returned) ? null : book.getId();
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.udemy.library.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which constraint a data integrity failure violated, so only the expected one is turned into a business
+ * error. Hibernate reports the name as the database printed it, for instance
+ * {@code "PUBLIC.UX_BOOK_ISBN_INDEX_1 ON PUBLIC.BOOK(ISBN) ..."} on H2, hence the case insensitive match on its
+ * contents. Without a Hibernate cause the exception messages are searched instead.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean isViolationOf(Throwable ex, String constraint) {
+        String expected = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return contains(((ConstraintViolationException) cause).getConstraintName(), expected);
+            }
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (contains(cause.getMessage(), expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(String text, String expected) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(expected);
+    }
+}
@@ -2,14 +2,40 @@ package com.udemy.library.repository;
 
 import com.udemy.library.domain.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
 
     boolean existsByIsbn(Long isbn);
 
     Optional<Book> findByIsbn(Long isbn);
+
+    /**
+     * Version of the book without loading the row into the persistence context, for conditional requests.
+     */
+    @Query(" select b.version from Book b where b.id = :id ")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(" select b.isbn from Book b where b.isbn in :isbns ")
+    List<Long> findExistingIsbns(@Param("isbns") Collection<Long> isbns);
+
+    /**
+     * Forward-only cursor over the whole catalog; must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(" select b from Book b order by b.id ")
+    Stream<Book> streamAll();
 }
@@ -0,0 +1,22 @@
+package com.udemy.library.repository;
+
+import com.udemy.library.domain.Book;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Offset page of books matching {@code example}. Unlike {@code findAll(Example, Pageable)} it fetches
+     * {@code size + 1} rows to compute {@link Slice#hasNext()} instead of issuing a count query.
+     */
+    Slice<Book> findSlice(Example<Book> example, Pageable pageable);
+
+    /**
+     * Keyset page of books matching {@code example}, ordered by {@code sortProperty} and id, starting right after
+     * ({@code lastSortKey}, {@code lastId}). A {@code null} {@code lastId} starts from the beginning. Fetches
+     * {@code size + 1} rows to compute {@link Slice#hasNext()} and never issues a count query.
+     */
+    Slice<Book> findAfter(Example<Book> example, String sortProperty, String lastSortKey, Long lastId, int size);
+}
@@ -0,0 +1,89 @@
+package com.udemy.library.repository;
+
+import com.udemy.library.domain.Book;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String ID = "id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Book> findSlice(Example<Book> example, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate matchesExample = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (matchesExample != null) {
+            query.where(matchesExample);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        } else {
+            query.orderBy(cb.asc(root.get(ID)));
+        }
+
+        List<Book> books = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        return toSlice(books, pageable);
+    }
+
+    @Override
+    public Slice<Book> findAfter(Example<Book> example, String sortProperty, String lastSortKey, Long lastId, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        Path<Long> id = root.get(ID);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate matchesExample = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (matchesExample != null) {
+            predicates.add(matchesExample);
+        }
+
+        if (ID.equals(sortProperty)) {
+            if (lastId != null) {
+                predicates.add(cb.greaterThan(id, lastId));
+            }
+            query.orderBy(cb.asc(id));
+        } else {
+            // key >= last alone bounds the range scan of the (key, id) index, the rest drops the rows already seen
+            Path<String> key = root.get(sortProperty);
+            if (lastId != null) {
+                String fromKey = lastSortKey == null ? "" : lastSortKey;
+                predicates.add(cb.greaterThanOrEqualTo(key, fromKey));
+                predicates.add(cb.or(cb.greaterThan(key, fromKey), cb.greaterThan(id, lastId)));
+            }
+            query.orderBy(cb.asc(key), cb.asc(id));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        List<Book> books = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        return toSlice(books, PageRequest.of(0, size));
+    }
+
+    private Slice<Book> toSlice(List<Book> books, Pageable pageable) {
+        boolean hasNext = books.size() > pageable.getPageSize();
+        List<Book> content = hasNext ? new ArrayList<>(books.subList(0, pageable.getPageSize())) : books;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
@@ -0,0 +1,26 @@
+package com.udemy.library.repository;
+
+import com.udemy.library.domain.BookToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface BookTokenRepository extends JpaRepository<BookToken, Long> {
+
+    /**
+     * Ids of the books containing all {@code tokens}, most relevant first. Each (token, book) pair is stored once,
+     * so a book matches every token exactly when it has {@code tokens.size()} rows.
+     */
+    @Query(value = " select t.bookId from BookToken t where t.token in :tokens group by t.bookId " +
+            "having count(t) = :matches order by sum(t.weight) desc, t.bookId ")
+    Slice<Long> findBookIds(@Param("tokens") Collection<String> tokens, @Param("matches") long matches, Pageable pageable);
+
+    @Modifying
+    @Query(value = " delete from BookToken t where t.bookId = :bookId ")
+    void deleteByBookId(@Param("bookId") Long bookId);
+}
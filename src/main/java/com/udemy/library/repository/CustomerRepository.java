@@ -0,0 +1,28 @@
+package com.udemy.library.repository;
+
+import com.udemy.library.domain.Customer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    @Query(" select c.id from Customer c where c.name = :name ")
+    Optional<Long> findIdByName(@Param("name") String name);
+
+    /**
+     * Every customer as {@code [id, name]} rows, to load the name dictionary.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(" select c.id, c.name from Customer c ")
+    Stream<Object[]> streamIdsAndNames();
+}
@@ -0,0 +1,9 @@
+package com.udemy.library.repository;
+
+import com.udemy.library.domain.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
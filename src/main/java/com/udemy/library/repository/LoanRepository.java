@@ -1,20 +1,175 @@
 package com.udemy.library.repository;
 
-import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
 import com.udemy.library.domain.Loan;
+import com.udemy.library.web.rest.dto.LoanDTO;
+import com.udemy.library.web.rest.dto.LoanExportDTO;
+import com.udemy.library.web.rest.dto.LoanStateDTO;
+import com.udemy.library.web.rest.dto.OverdueLoanDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
 
-    @Query(value = " select case when (count(l.id) > 0) then true else false end from Loan l where l.book =:book " +
-            "and l.returned is null or l.returned is false ")
-    boolean existsByBookAndNotReturned(@Param("book") Book book);
+    /**
+     * Name of the loan's customer, still read from the legacy column for loans the customer migration has not
+     * reached yet. Drop the fallback together with the column.
+     */
+    String CUSTOMER_NAME = " coalesce(c.name, l.legacyCustomer) ";
+    String LOAN_DTO = " select new com.udemy.library.web.rest.dto.LoanDTO(l.id," + CUSTOMER_NAME +
+            ", b.id, b.isbn, b.title, b.author) ";
+    /**
+     * Customers are matched by id on the {@code ix_loan_customer} index, or by name on loans not migrated yet; their
+     * name is only joined for the result.
+     */
+    String ISBN_OR_CUSTOMER = " (b.isbn = :isbn or l.customer.id = :customerId or l.legacyCustomer = :customer) ";
+    String BY_ISBN_OR_CUSTOMER = " from Loan l left join l.book b left join l.customer c where" + ISBN_OR_CUSTOMER;
+
+    /**
+     * Whether the book has an active loan, answered from the unique active book index.
+     */
+    boolean existsByActiveBookId(Long activeBookId);
+
+    /**
+     * Ids of the books with an active loan, read from the unique active book index.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(" select l.activeBookId from Loan l where l.activeBookId is not null ")
+    Stream<Long> streamActiveBookIds();
+
+    /**
+     * Loan with its book, for the return endpoint. The customer stays a lazy reference: only its id is read.
+     */
+    @Override
+    @EntityGraph(attributePaths = "book")
+    Optional<Loan> findById(Long id);
+
+    @Query(" select count(l) from Loan l left join l.book b where" + ISBN_OR_CUSTOMER)
+    long countByIsbnOrCustomer(@Param("isbn") Long isbn, @Param("customerId") Long customerId,
+                               @Param("customer") String customer);
+
+    /*
+     * Loan searches select straight into LoanDTO in a single statement: no managed entities, no lazy book loads
+     * and no mapping afterwards.
+     */
+
+    @Query(value = LOAN_DTO + BY_ISBN_OR_CUSTOMER,
+            countQuery = " select count(l) from Loan l left join l.book b where" + ISBN_OR_CUSTOMER)
+    Page<LoanDTO> findDtoByIsbnOrCustomer(@Param("isbn") Long isbn, @Param("customerId") Long customerId,
+                                          @Param("customer") String customer, Pageable pageable);
+
+    @Query(LOAN_DTO + BY_ISBN_OR_CUSTOMER)
+    Slice<LoanDTO> findDtoSliceByIsbnOrCustomer(@Param("isbn") Long isbn, @Param("customerId") Long customerId,
+                                                @Param("customer") String customer, Pageable pageable);
+
+    @Query(LOAN_DTO + BY_ISBN_OR_CUSTOMER + "and l.id > :lastId order by l.id ")
+    Slice<LoanDTO> findDtoAfter(@Param("lastId") Long lastId, @Param("isbn") Long isbn,
+                                @Param("customerId") Long customerId, @Param("customer") String customer,
+                                Pageable pageable);
+
+    /**
+     * Forward-only cursor over the whole loan history, read straight into DTOs; must be consumed inside a
+     * transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(" select new com.udemy.library.web.rest.dto.LoanExportDTO(l.id," + CUSTOMER_NAME +
+            ", l.loanDate, l.returned, b.id, b.isbn) " +
+            "from Loan l left join l.book b left join l.customer c order by l.id ")
+    Stream<LoanExportDTO> streamAllForExport();
+
+    @Query(" select new com.udemy.library.web.rest.dto.LoanStateDTO(l.id, b.isbn, l.returned, b.id, l.customer.id) " +
+            "from Loan l left join l.book b where l.id in :ids ")
+    List<LoanStateDTO> findStatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Latest loan of each book with one of {@code isbns}; a book's active loan is always its latest one.
+     */
+    @Query(" select new com.udemy.library.web.rest.dto.LoanStateDTO(l.id, b.isbn, l.returned, b.id, l.customer.id) " +
+            "from Loan l join l.book b where b.isbn in :isbns " +
+            "and l.id = (select max(latest.id) from Loan latest where latest.book = b) ")
+    List<LoanStateDTO> findLatestStatesByIsbnIn(@Param("isbns") Collection<Long> isbns);
+
+    /**
+     * Locks the loans of {@code ids} that are still active and returns their ids, in id order so concurrent batches
+     * take their row locks in the same order. A loan returned by another transaction since it was read is left out.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(" select l.id from Loan l where l.id in :ids and (l.returned is null or l.returned = false) order by l.id ")
+    List<Long> lockActiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(" select count(l) from Loan l ")
+    long countAll();
+
+    @Query(" select count(l) from Loan l where l.returned is null or l.returned = false ")
+    long countActive();
+
+    /**
+     * Loans and active loans per book, as {@code [bookId, loans, active]} rows, to rebuild the loan statistics.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(" select l.book.id, count(l), sum(case when l.returned = true then 0 else 1 end) from Loan l " +
+            "group by l.book.id ")
+    Stream<Object[]> streamCountsByBook();
+
+    /**
+     * Loans and active loans per customer, as {@code [customerId, loans, active]} rows.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(" select l.customer.id, count(l), sum(case when l.returned = true then 0 else 1 end) from Loan l " +
+            "group by l.customer.id ")
+    Stream<Object[]> streamCountsByCustomer();
+
+    /**
+     * Marks the loans returned in one statement. Bulk updates skip entity callbacks, so the active book column is
+     * cleared here as well.
+     */
+    @Modifying
+    @Query(" update Loan l set l.returned = true, l.activeBookId = null " +
+            "where l.id in :ids and (l.returned is null or l.returned = false) ")
+    int returnAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Next chunk of active loans taken on or before {@code cutoff}, in ({@code loanDate}, id) order right after the
+     * given key. The leading {@code loanDate >= :lastLoanDate} keeps it a range scan of
+     * {@code ix_loan_returned_loan_date}.
+     */
+    @Query(" select new com.udemy.library.web.rest.dto.OverdueLoanDTO(l.id," + CUSTOMER_NAME +
+            ", l.loanDate, b.isbn, b.title) " +
+            "from Loan l left join l.book b left join l.customer c where l.returned = false " +
+            "and l.loanDate >= :lastLoanDate and l.loanDate <= :cutoff " +
+            "and (l.loanDate > :lastLoanDate or l.id > :lastId) order by l.loanDate, l.id ")
+    List<OverdueLoanDTO> findOverdueAfter(@Param("cutoff") LocalDate cutoff, @Param("lastLoanDate") LocalDate lastLoanDate,
+                                          @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * Next chunk of loans still carrying a free text customer, as {@code [id, customer]} rows in id order after
+     * {@code lastId}.
+     */
+    @Query(" select l.id, l.legacyCustomer from Loan l where l.id > :lastId and l.legacyCustomer is not null " +
+            "and l.customer is null order by l.id ")
+    List<Object[]> findLegacyCustomersAfter(@Param("lastId") Long lastId, Pageable pageable);
 
-    Page<Loan> findByBook_IsbnOrCustomer(Long book_isbn, String customer, Pageable pageable);
+    @Modifying
+    @Query(" update Loan l set l.customer = :customer, l.legacyCustomer = null where l.id in :ids ")
+    int migrateCustomer(@Param("customer") Customer customer, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,54 @@
+package com.udemy.library.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of expensive count queries per filter for a while, for listings that only need to show
+ * "about N results". Values can be up to {@code ttl} old; the map is simply dropped when it reaches
+ * {@code maxEntries} so it stays bounded no matter how many distinct filters are used.
+ */
+public class ApproximateCounter<K> {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<K, Count> counts = new ConcurrentHashMap<>();
+
+    public ApproximateCounter(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    public ApproximateCounter(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public long count(K key, Supplier<Long> counter) {
+        long now = clock.millis();
+        Count cached = counts.get(key);
+        if (cached != null && now - cached.countedAt < ttl.toMillis()) {
+            return cached.value;
+        }
+        if (counts.size() >= maxEntries) {
+            counts.clear();
+        }
+        long value = counter.get();
+        counts.put(key, new Count(value, now));
+        return value;
+    }
+
+    private static final class Count {
+        private final long value;
+        private final long countedAt;
+
+        private Count(long value, long countedAt) {
+            this.value = value;
+            this.countedAt = countedAt;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.udemy.library.service;
+
+import com.udemy.library.web.rest.dto.OnLoanCheckDTO;
+import com.udemy.library.web.rest.dto.OnLoanSetDTO;
+
+/**
+ * In-memory set of the ids of books with an active loan, so availability does not query the loan table.
+ */
+public interface BookAvailabilityService {
+
+    /**
+     * Whether the book has an active loan; asks the database until the set has been loaded.
+     */
+    boolean isOnLoan(Long bookId);
+
+    /**
+     * Marks the book on loan or returned once the current transaction commits, or right away without one.
+     */
+    void markOnLoan(Long bookId, boolean onLoan);
+
+    /**
+     * Reloads the set from the loan table and reports how far it had drifted.
+     */
+    OnLoanCheckDTO check();
+
+    OnLoanSetDTO usage();
+}
@@ -0,0 +1,101 @@
+package com.udemy.library.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent set of non negative book ids, one bit per id. Ids come from a sequence and are dense, so the bits are
+ * kept in pages of {@value #PAGE_BITS} ids allocated on first use: a million books cost about 128 KB, and ranges of
+ * ids that never had an entry cost nothing.
+ */
+public class BookIdBitmap {
+
+    static final int PAGE_BITS = 1 << 16;
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_WORDS = PAGE_BITS / Long.SIZE;
+    private static final long PAGE_BYTES = PAGE_WORDS * (long) Long.BYTES;
+
+    private final Map<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+
+    public boolean contains(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_SHIFT);
+        return page != null && (page.get(word(id)) & bit(id)) != 0;
+    }
+
+    /**
+     * Adds or removes {@code id}; returns whether the set changed.
+     */
+    public boolean set(long id, boolean present) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id: " + id);
+        }
+        AtomicLongArray page = present ? pages.computeIfAbsent(id >>> PAGE_SHIFT, key -> new AtomicLongArray(PAGE_WORDS))
+                : pages.get(id >>> PAGE_SHIFT);
+        if (page == null) {
+            return false;
+        }
+        int word = word(id);
+        long bit = bit(id);
+        long current;
+        long next;
+        do {
+            current = page.get(word);
+            next = present ? current | bit : current & ~bit;
+            if (next == current) {
+                return false;
+            }
+        } while (!page.compareAndSet(word, current, next));
+        size.add(present ? 1 : -1);
+        return true;
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    public int pages() {
+        return pages.size();
+    }
+
+    /**
+     * Bytes held by the bit pages; the page directory adds a few dozen bytes per page.
+     */
+    public long memoryBytes() {
+        return pages.size() * PAGE_BYTES;
+    }
+
+    /**
+     * Number of ids present in only one of the two sets, as {@code [onlyHere, onlyInOther]}.
+     */
+    public long[] difference(BookIdBitmap other) {
+        long[] difference = new long[2];
+        pages.forEach((index, page) -> {
+            AtomicLongArray otherPage = other.pages.get(index);
+            for (int i = 0; i < PAGE_WORDS; i++) {
+                long mine = page.get(i);
+                long theirs = otherPage == null ? 0 : otherPage.get(i);
+                difference[0] += Long.bitCount(mine & ~theirs);
+                difference[1] += Long.bitCount(theirs & ~mine);
+            }
+        });
+        other.pages.forEach((index, page) -> {
+            if (!pages.containsKey(index)) {
+                for (int i = 0; i < PAGE_WORDS; i++) {
+                    difference[1] += Long.bitCount(page.get(i));
+                }
+            }
+        });
+        return difference;
+    }
+
+    private static int word(long id) {
+        return (int) (id & (PAGE_BITS - 1)) >>> 6;
+    }
+
+    private static long bit(long id) {
+        return 1L << (id & 63);
+    }
+}
@@ -0,0 +1,10 @@
+package com.udemy.library.service;
+
+import com.udemy.library.web.rest.dto.BulkImportResultDTO;
+
+import java.io.Reader;
+
+public interface BookImportService {
+
+    BulkImportResultDTO importBooks(Reader reader, LineFormat format);
+}
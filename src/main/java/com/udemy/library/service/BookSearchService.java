@@ -0,0 +1,19 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Book;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+
+public interface BookSearchService {
+
+    Slice<Book> search(String query, Integer page, Integer size);
+
+    void index(Collection<Book> books);
+
+    void reindex(Book book);
+
+    void remove(Long bookId);
+
+    long rebuild();
+}
@@ -2,6 +2,7 @@ package com.udemy.library.service;
 
 import com.udemy.library.domain.Book;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
@@ -11,11 +12,19 @@ public interface BookService {
 
     Optional<Book> findById(Long id);
 
+    Optional<Long> findVersionById(Long id);
+
     void delete(Book book);
 
     Book update(Book book);
 
     Page<Book> find(Integer pagina, Integer tamanho, Book filter);
 
+    Slice<Book> findSlice(Integer page, Integer size, Book filter);
+
+    long approximateCount(Book filter);
+
+    Slice<Book> findAfter(Cursor after, Integer size, Book filter, BookSort sort);
+
     Optional<Book> getBookByIsbn(Long isbn);
 }
@@ -0,0 +1,50 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.exception.BusinessException;
+
+import java.util.function.Function;
+
+/**
+ * Orderings supported by the keyset listing of books. Every ordering uses the id as tie breaker.
+ */
+public enum BookSort {
+
+    ID("id", book -> null),
+    TITLE("title", Book::getTitle),
+    AUTHOR("author", Book::getAuthor);
+
+    private final String property;
+    private final Function<Book, String> sortKey;
+
+    BookSort(String property, Function<Book, String> sortKey) {
+        this.property = property;
+        this.sortKey = sortKey;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * The value a {@link Cursor} has to carry to continue after {@code book}, {@code null} when sorting by id.
+     */
+    public String sortKeyOf(Book book) {
+        if (this == ID) {
+            return null;
+        }
+        return sortKey.apply(book);
+    }
+
+    public static BookSort of(String property) {
+        if (property == null || property.isBlank()) {
+            return ID;
+        }
+        for (BookSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(property)) {
+                return sort;
+            }
+        }
+        throw new BusinessException("Invalid sort property: " + property);
+    }
+}
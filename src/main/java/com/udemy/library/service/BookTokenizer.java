@@ -0,0 +1,49 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Book;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Splits titles, authors and search queries into index tokens: lower case words and numbers without accents,
+ * so {@code "Coração"} and {@code "coracao"} produce the same token.
+ */
+public final class BookTokenizer {
+
+    public static final int TITLE_WEIGHT = 2;
+    public static final int AUTHOR_WEIGHT = 1;
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private BookTokenizer() {
+    }
+
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokens of the book's title and author with their relevance weight.
+     */
+    public static Map<String, Integer> weights(Book book) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        tokens(book.getTitle()).forEach(token -> weights.merge(token, TITLE_WEIGHT, Integer::sum));
+        tokens(book.getAuthor()).forEach(token -> weights.merge(token, AUTHOR_WEIGHT, Integer::sum));
+        return weights;
+    }
+}
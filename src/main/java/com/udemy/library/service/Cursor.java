@@ -0,0 +1,60 @@
+package com.udemy.library.service;
+
+import com.udemy.library.exception.BusinessException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a keyset (seek) page: the id of the last row the client saw and, when the listing is sorted by
+ * something else than the id, that row's sort key. Clients only ever see it as an opaque url-safe token.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class Cursor {
+
+    public static final Cursor START = new Cursor(null, null);
+
+    private static final String SEPARATOR = ":";
+
+    private final Long lastId;
+    private final String lastSortKey;
+
+    private Cursor(Long lastId, String lastSortKey) {
+        this.lastId = lastId;
+        this.lastSortKey = lastSortKey;
+    }
+
+    public static Cursor of(Long lastId, String lastSortKey) {
+        return new Cursor(lastId, lastSortKey);
+    }
+
+    public boolean isStart() {
+        return lastId == null;
+    }
+
+    public String encode() {
+        String raw = lastSortKey == null ? String.valueOf(lastId) : lastId + SEPARATOR + lastSortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}; a blank token means the first page.
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            return new Cursor(Long.valueOf(parts[0]), parts.length > 1 ? parts[1] : null);
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.udemy.library.service;
+
+public interface CustomerMigrationService {
+
+    /**
+     * Moves the free text customer of every loan written before {@code Customer} existed to a customer reference,
+     * one chunk per transaction. Returns the number of loans migrated; running it again only picks up what is left.
+     */
+    long migrate();
+}
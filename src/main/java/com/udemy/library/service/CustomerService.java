@@ -0,0 +1,22 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Customer;
+
+import java.util.Optional;
+
+/**
+ * Resolves customer names to their ids through an in-memory dictionary, so writes and searches by customer compare
+ * numbers instead of strings.
+ */
+public interface CustomerService {
+
+    /**
+     * Reference to the customer with this name, created on first use; {@code null} for a {@code null} name.
+     */
+    Customer resolve(String name);
+
+    /**
+     * Id of the customer with this name, without creating it.
+     */
+    Optional<Long> findId(String name);
+}
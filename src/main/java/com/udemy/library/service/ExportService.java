@@ -0,0 +1,11 @@
+package com.udemy.library.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    long exportBooks(LineFormat format, OutputStream out) throws IOException;
+
+    long exportLoans(LineFormat format, OutputStream out) throws IOException;
+}
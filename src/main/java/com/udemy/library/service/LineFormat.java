@@ -0,0 +1,21 @@
+package com.udemy.library.service;
+
+import com.udemy.library.exception.BusinessException;
+
+/**
+ * Line oriented formats used by the bulk import and the exports: NDJSON, one JSON object per line, or CSV, one
+ * record per line. Imported CSV lines are {@code title,author,isbn}, optionally preceded by a header line.
+ */
+public enum LineFormat {
+    NDJSON,
+    CSV;
+
+    public static LineFormat of(String format) {
+        for (LineFormat lineFormat : values()) {
+            if (lineFormat.name().equalsIgnoreCase(format)) {
+                return lineFormat;
+            }
+        }
+        throw new BusinessException("Invalid format: " + format);
+    }
+}
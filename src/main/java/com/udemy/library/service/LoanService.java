@@ -1,9 +1,13 @@
 package com.udemy.library.service;
 
 import com.udemy.library.domain.Loan;
+import com.udemy.library.web.rest.dto.BatchReturnResultDTO;
+import com.udemy.library.web.rest.dto.LoanDTO;
 import com.udemy.library.web.rest.dto.LoanFilterDTO;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.Optional;
 
 public interface LoanService {
@@ -13,5 +17,13 @@ public interface LoanService {
 
     Loan update(Loan loan);
 
-    Page<Loan> find(int pagina, int tamanho, LoanFilterDTO any);
+    Page<LoanDTO> find(int pagina, int tamanho, LoanFilterDTO any);
+
+    Slice<LoanDTO> findSlice(int page, int size, LoanFilterDTO filter);
+
+    long approximateCount(LoanFilterDTO filter);
+
+    Slice<LoanDTO> findAfter(Cursor after, int size, LoanFilterDTO filter);
+
+    BatchReturnResultDTO returnAll(Collection<Long> loanIds, Collection<Long> isbns);
 }
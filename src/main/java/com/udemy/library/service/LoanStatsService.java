@@ -0,0 +1,24 @@
+package com.udemy.library.service;
+
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import com.udemy.library.web.rest.dto.LoanStatsVerificationDTO;
+
+/**
+ * Loan counters kept in memory, so reading them never aggregates the loan table. Writers report their changes with
+ * {@link #record}; {@link #rebuild()} recomputes everything from the table and reports the drift.
+ */
+public interface LoanStatsService {
+
+    /**
+     * Applies a change of {@code loans} loans and {@code activeLoans} active loans of a book and customer once the
+     * current transaction commits, or right away without one. Null ids only count towards the totals.
+     */
+    void record(Long bookId, Long customerId, int loans, int activeLoans);
+
+    /**
+     * Totals, plus the counters of the book and of the customer when given.
+     */
+    LoanStatsDTO stats(Long bookId, Long customerId);
+
+    LoanStatsVerificationDTO rebuild();
+}
@@ -0,0 +1,14 @@
+package com.udemy.library.service;
+
+import com.udemy.library.web.rest.dto.OverdueLoanDTO;
+
+import java.util.List;
+
+/**
+ * Receives the loans the overdue job found, one chunk at a time. Called inside the transaction that advances the
+ * job checkpoint, so a chunk whose publication fails is offered again on the next run.
+ */
+public interface OverdueLoanNotifier {
+
+    void publish(List<OverdueLoanDTO> loans);
+}
@@ -0,0 +1,8 @@
+package com.udemy.library.service;
+
+import java.time.LocalDate;
+
+public interface OverdueLoanService {
+
+    long notifyOverdue(LocalDate today);
+}
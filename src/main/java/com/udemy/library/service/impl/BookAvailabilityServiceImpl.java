@@ -0,0 +1,141 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.BookAvailabilityService;
+import com.udemy.library.service.BookIdBitmap;
+import com.udemy.library.web.rest.dto.OnLoanCheckDTO;
+import com.udemy.library.web.rest.dto.OnLoanSetDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+@Service
+@Log4j2
+public class BookAvailabilityServiceImpl implements BookAvailabilityService, MeterBinder {
+
+    private final LoanRepository loanRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile BookIdBitmap onLoan = new BookIdBitmap();
+    private volatile boolean ready;
+
+    /**
+     * Set being reloaded; changes committed meanwhile are applied to it as well, so the swap does not lose them. It
+     * is only cleared once the reloaded set is published.
+     */
+    private volatile BookIdBitmap loading;
+
+    /**
+     * Checkouts and returns mark the books after commit, so the set only ever holds committed loans. It is loaded
+     * with one pass over the active book index when the application starts; until then lookups go to the database.
+     */
+    public BookAvailabilityServiceImpl(LoanRepository loanRepository, PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public boolean isOnLoan(Long bookId) {
+        if (!ready) {
+            return loanRepository.existsByActiveBookId(bookId);
+        }
+        return onLoan.contains(bookId);
+    }
+
+    @Override
+    public void markOnLoan(Long bookId, boolean onLoan) {
+        if (bookId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(bookId, onLoan);
+                }
+            });
+        } else {
+            apply(bookId, onLoan);
+        }
+    }
+
+    /**
+     * Reads the set being reloaded before the live one, like {@code LoanStatsServiceImpl}: once {@code loading} reads
+     * null the reloaded set is already live.
+     */
+    private void apply(Long bookId, boolean present) {
+        BookIdBitmap next = loading;
+        BookIdBitmap current = onLoan;
+        current.set(bookId, present);
+        if (next != null && next != current) {
+            next.set(bookId, present);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        check();
+    }
+
+    @Override
+    public synchronized OnLoanCheckDTO check() {
+        long started = System.nanoTime();
+        BookIdBitmap fresh = new BookIdBitmap();
+        long[] difference;
+        loading = fresh;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Long> bookIds = loanRepository.streamActiveBookIds()) {
+                    bookIds.forEach(bookId -> fresh.set(bookId, true));
+                }
+            });
+            difference = ready ? onLoan.difference(fresh) : new long[2];
+            onLoan = fresh;
+            ready = true;
+        } finally {
+            loading = null;
+        }
+
+        OnLoanCheckDTO check = OnLoanCheckDTO.builder()
+                .missing(difference[1])
+                .stale(difference[0])
+                .books(fresh.size())
+                .durationMillis((System.nanoTime() - started) / 1_000_000)
+                .build();
+        log.info("Books on loan loaded: {}", check);
+        return check;
+    }
+
+    @Override
+    public OnLoanSetDTO usage() {
+        BookIdBitmap current = onLoan;
+        return OnLoanSetDTO.builder()
+                .ready(ready)
+                .books(current.size())
+                .pages(current.pages())
+                .memoryBytes(current.memoryBytes())
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.onloan.books", this, service -> service.onLoan.size())
+                .description("Books with an active loan in the in-memory set")
+                .register(registry);
+        Gauge.builder("library.onloan.memory", this, service -> service.onLoan.memoryBytes())
+                .description("Bytes held by the in-memory set of books on loan")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
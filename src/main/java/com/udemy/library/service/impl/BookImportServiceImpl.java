@@ -0,0 +1,249 @@
+package com.udemy.library.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.library.domain.Book;
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.exception.ConstraintViolations;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.service.BookImportService;
+import com.udemy.library.service.BookSearchService;
+import com.udemy.library.service.LineFormat;
+import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.BulkImportResultDTO;
+import com.udemy.library.web.rest.dto.LineErrorDTO;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streams books line by line from the request body. Valid lines are collected in chunks of {@link #CHUNK_SIZE};
+ * each chunk is deduplicated against the database with a single {@code in} query and inserted, together with its
+ * search index entries, in one transaction, which Hibernate sends as JDBC batches thanks to the pooled sequence id
+ * generators. The persistence context is cleared after every chunk and at most {@link #MAX_REPORTED_ERRORS} line
+ * errors are kept, so memory stays constant whatever the size of the upload.
+ */
+@Service
+@Log4j2
+public class BookImportServiceImpl implements BookImportService {
+
+    static final int CHUNK_SIZE = 1_000;
+    static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final String DUPLICATED_ISBN = "Isbn já cadastrada";
+    private static final String MALFORMED_LINE = "Malformed line";
+
+    private final BookRepository bookRepository;
+    private final BookSearchService bookSearchService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public BookImportServiceImpl(BookRepository bookRepository, BookSearchService bookSearchService,
+                                 EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                 Validator validator, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.bookSearchService = bookSearchService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BulkImportResultDTO importBooks(Reader reader, LineFormat format) {
+        ImportReport report = new ImportReport();
+        List<ImportLine> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader lines = new BufferedReader(reader)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == LineFormat.CSV && isCsvHeader(line))) {
+                    continue;
+                }
+
+                BookDTO bookDTO;
+                try {
+                    bookDTO = format == LineFormat.CSV ? parseCsv(line) : objectMapper.readValue(line, BookDTO.class);
+                } catch (IOException | IllegalArgumentException ex) {
+                    report.reject(lineNumber, Collections.singletonList(MALFORMED_LINE));
+                    continue;
+                }
+
+                List<String> violations = validate(bookDTO);
+                if (!violations.isEmpty()) {
+                    report.reject(lineNumber, violations);
+                    continue;
+                }
+
+                chunk.add(new ImportLine(lineNumber, Book.builder()
+                        .title(bookDTO.getTitle())
+                        .author(bookDTO.getAuthor())
+                        .isbn(bookDTO.getIsbn())
+                        .build()));
+                if (chunk.size() == CHUNK_SIZE) {
+                    insert(chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException ex) {
+            throw new BusinessException("Could not read the import: " + ex.getMessage());
+        }
+        insert(chunk, report);
+
+        log.info("Bulk import finished: {} imported, {} rejected", report.imported, report.rejected);
+        return report.toResult();
+    }
+
+    private void insert(List<ImportLine> chunk, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<Long> existing = new HashSet<>(bookRepository.findExistingIsbns(
+                chunk.stream().map(importLine -> importLine.book.getIsbn()).collect(Collectors.toList())));
+        List<ImportLine> accepted = new ArrayList<>(chunk.size());
+        for (ImportLine importLine : chunk) {
+            // adding to existing also catches an isbn repeated inside the chunk
+            if (existing.add(importLine.book.getIsbn())) {
+                accepted.add(importLine);
+            } else {
+                report.reject(importLine.number, Collections.singletonList(DUPLICATED_ISBN));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookSearchService.index(bookRepository.saveAll(
+                        accepted.stream().map(importLine -> importLine.book).collect(Collectors.toList())));
+                // through the repository, so a constraint failure comes out translated
+                bookRepository.flush();
+                entityManager.clear();
+            });
+            report.imported += accepted.size();
+        } catch (DataIntegrityViolationException ex) {
+            // another writer took some of these isbns after the check, find out which line by line
+            accepted.forEach(importLine -> insertAlone(importLine, report));
+        }
+    }
+
+    private void insertAlone(ImportLine importLine, ImportReport report) {
+        importLine.book.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookSearchService.index(Collections.singletonList(bookRepository.saveAndFlush(importLine.book)));
+                bookRepository.flush();
+                entityManager.clear();
+            });
+            report.imported++;
+        } catch (DataIntegrityViolationException ex) {
+            if (!ConstraintViolations.isViolationOf(ex, Book.ISBN_INDEX)) {
+                throw ex;
+            }
+            report.reject(importLine.number, Collections.singletonList(DUPLICATED_ISBN));
+        }
+    }
+
+    private List<String> validate(BookDTO bookDTO) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(bookDTO);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase(Locale.ROOT).startsWith("title");
+    }
+
+    private BookDTO parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Expected title,author,isbn");
+        }
+        String isbn = fields.get(2).trim();
+        return BookDTO.builder()
+                .title(fields.get(0))
+                .author(fields.get(1))
+                .isbn(isbn.isEmpty() ? null : Long.valueOf(isbn))
+                .build();
+    }
+
+    /**
+     * Splits one CSV record, honouring double quoted fields and {@code ""} escapes.
+     */
+    private List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class ImportLine {
+        private final long number;
+        private final Book book;
+
+        private ImportLine(long number, Book book) {
+            this.number = number;
+            this.book = book;
+        }
+    }
+
+    private static final class ImportReport {
+        private long imported;
+        private long rejected;
+        private final List<LineErrorDTO> errors = new ArrayList<>();
+
+        private void reject(long line, List<String> messages) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new LineErrorDTO(line, messages));
+            }
+        }
+
+        private BulkImportResultDTO toResult() {
+            errors.sort(Comparator.comparingLong(LineErrorDTO::getLine));
+            return new BulkImportResultDTO(imported, rejected, errors, rejected > errors.size());
+        }
+    }
+}
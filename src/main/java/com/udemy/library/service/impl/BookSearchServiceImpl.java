@@ -0,0 +1,117 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.BookToken;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.BookTokenRepository;
+import com.udemy.library.service.BookSearchService;
+import com.udemy.library.service.BookTokenizer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Full text search over book titles and authors backed by the {@code book_token} inverted index. A query is
+ * tokenized like the books, matches the books holding all of its tokens through the {@code (token, book_id)} index
+ * and is ordered by the summed token weights, so no query ever scans the book table. The index is written in the
+ * caller's transaction, which keeps it consistent with the book rows.
+ */
+@Service
+@Log4j2
+public class BookSearchServiceImpl implements BookSearchService {
+
+    static final int REBUILD_CHUNK_SIZE = 1_000;
+
+    private final BookTokenRepository bookTokenRepository;
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+
+    public BookSearchServiceImpl(BookTokenRepository bookTokenRepository, BookRepository bookRepository,
+                                 EntityManager entityManager) {
+        this.bookTokenRepository = bookTokenRepository;
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<Book> search(String query, Integer page, Integer size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Set<String> tokens = BookTokenizer.tokens(query);
+        if (tokens.isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+
+        Slice<Long> ids = bookTokenRepository.findBookIds(tokens, tokens.size(), pageable);
+        Map<Long, Book> books = bookRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> ranked = ids.getContent().stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new SliceImpl<>(ranked, pageable, ids.hasNext());
+    }
+
+    /**
+     * Indexes books that are not indexed yet, typically right after they were inserted.
+     */
+    @Override
+    @Transactional
+    public void index(Collection<Book> books) {
+        bookTokenRepository.saveAll(books.stream().flatMap(this::tokensOf).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional
+    public void reindex(Book book) {
+        bookTokenRepository.deleteByBookId(book.getId());
+        index(Collections.singletonList(book));
+    }
+
+    @Override
+    @Transactional
+    public void remove(Long bookId) {
+        bookTokenRepository.deleteByBookId(bookId);
+    }
+
+    /**
+     * Drops the whole index and rebuilds it from the book table, for books written outside of the services.
+     */
+    @Override
+    @Transactional
+    public long rebuild() {
+        bookTokenRepository.deleteAllInBatch();
+        long indexed = 0;
+        List<Book> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == REBUILD_CHUNK_SIZE || !iterator.hasNext()) {
+                    index(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                    indexed += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Search index rebuilt for {} books", indexed);
+        return indexed;
+    }
+
+    private Stream<BookToken> tokensOf(Book book) {
+        return BookTokenizer.weights(book).entrySet().stream()
+                .map(entry -> BookToken.builder()
+                        .token(entry.getKey())
+                        .bookId(book.getId())
+                        .weight(entry.getValue())
+                        .build());
+    }
+}
@@ -1,66 +1,245 @@
 package com.udemy.library.service.impl;
 
+import com.udemy.library.config.CacheConfig;
 import com.udemy.library.domain.Book;
 import com.udemy.library.exception.BusinessException;
+import com.udemy.library.exception.ConstraintViolations;
 import com.udemy.library.repository.BookRepository;
+import com.udemy.library.service.ApproximateCounter;
+import com.udemy.library.service.BookSearchService;
 import com.udemy.library.service.BookService;
+import com.udemy.library.service.BookSort;
+import com.udemy.library.service.Cursor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
+    private final BookSearchService bookSearchService;
+    private final ApproximateCounter<Book> approximateCounts = new ApproximateCounter<>(Duration.ofMinutes(1), 1_000);
+    private final Cache booksById;
+    private final Cache booksByIsbn;
+    private final AtomicLong invalidations = new AtomicLong();
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    /**
+     * Books are read through {@link CacheConfig#BOOKS_BY_ID} and {@link CacheConfig#BOOKS_BY_ISBN}. The caches hold
+     * private copies, so callers may change the books they get back without touching the cached state. Writes keep
+     * the {@link BookSearchService} index in sync within the same transaction and change the caches once it commits.
+     * A read that loaded a book while any write committed does not keep it in the cache, as it may predate the write.
+     */
+    public BookServiceImpl(BookRepository bookRepository, BookSearchService bookSearchService, CacheManager cacheManager) {
         this.bookRepository = bookRepository;
+        this.bookSearchService = bookSearchService;
+        this.booksById = cacheManager.getCache(CacheConfig.BOOKS_BY_ID);
+        this.booksByIsbn = cacheManager.getCache(CacheConfig.BOOKS_BY_ISBN);
     }
 
+    /**
+     * Inserts the book in a single statement and relies on the unique isbn index to reject duplicates,
+     * which also covers two concurrent creates of the same isbn.
+     */
     @Override
+    @Transactional
     public Book save(Book book) {
-        if (bookRepository.existsByIsbn(book.getIsbn())) {
-            throw new BusinessException("Isbn já cadastrada");
+        Book saved;
+        try {
+            saved = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException ex) {
+            throw duplicateIsbn(ex);
         }
-        return bookRepository.save(book);
+        bookSearchService.index(Collections.singletonList(saved));
+        Book copy = saved.toBuilder().build();
+        afterCommit(() -> {
+            invalidate(copy.getId(), copy.getIsbn());
+            cache(copy);
+        });
+        return saved;
     }
 
     @Override
     public Optional<Book> findById(Long id) {
-        return bookRepository.findById(id);
+        Book cached = booksById.get(id, Book.class);
+        if (cached != null) {
+            return Optional.of(cached.toBuilder().build());
+        }
+        long seen = invalidations.get();
+        Optional<Book> book = bookRepository.findById(id);
+        book.ifPresent(found -> cacheIfCurrent(found, seen));
+        return book;
+    }
+
+    /**
+     * Always read from the database: the cache of this instance may lag behind writes made through another one.
+     */
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return bookRepository.findVersionById(id);
     }
 
     @Override
+    @Transactional
     public void delete(Book book) {
         if (book == null || book.getId() == null) {
             throw new IllegalArgumentException("Book id cant be null.");
         }
+        bookSearchService.remove(book.getId());
         bookRepository.delete(book);
+        afterCommit(() -> invalidate(book.getId(), book.getIsbn()));
     }
 
     @Override
+    @Transactional
     public Book update(Book book) {
         if (book == null || book.getId() == null) {
             throw new IllegalArgumentException("Book id cant be null.");
         }
-        return bookRepository.save(book);
+        Long previousIsbn = previousIsbn(book.getId());
+        Book updated;
+        try {
+            updated = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException ex) {
+            throw duplicateIsbn(ex);
+        } catch (OptimisticLockingFailureException ex) {
+            // the version came from a stale copy, possibly the cached one
+            evict(book.getId(), previousIsbn);
+            throw ex;
+        }
+        bookSearchService.reindex(updated);
+        Book copy = updated.toBuilder().build();
+        afterCommit(() -> {
+            invalidate(copy.getId(), previousIsbn);
+            cache(copy);
+        });
+        return updated;
     }
 
     @Override
     public Page<Book> find(Integer page, Integer size, Book filter) {
-        Example<Book> example = Example.of(filter,
-                ExampleMatcher.matching()
-                        .withIgnoreCase()
-                        .withIgnoreNullValues()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
         Pageable pageable = PageRequest.of(page, size);
-        return bookRepository.findAll(example, pageable);
+        return bookRepository.findAll(example(filter), pageable);
+    }
+
+    @Override
+    public Slice<Book> findSlice(Integer page, Integer size, Book filter) {
+        return bookRepository.findSlice(example(filter), PageRequest.of(page, size));
+    }
+
+    @Override
+    public long approximateCount(Book filter) {
+        return approximateCounts.count(filter, () -> bookRepository.count(example(filter)));
+    }
+
+    @Override
+    public Slice<Book> findAfter(Cursor after, Integer size, Book filter, BookSort sort) {
+        return bookRepository.findAfter(example(filter), sort.getProperty(), after.getLastSortKey(), after.getLastId(), size);
     }
 
     @Override
     public Optional<Book> getBookByIsbn(Long isbn) {
-        return bookRepository.findByIsbn(isbn);
+        Book cached = booksByIsbn.get(isbn, Book.class);
+        if (cached != null) {
+            return Optional.of(cached.toBuilder().build());
+        }
+        long seen = invalidations.get();
+        Optional<Book> book = bookRepository.findByIsbn(isbn);
+        book.ifPresent(found -> cacheIfCurrent(found, seen));
+        return book;
+    }
+
+    /**
+     * "Isbn já cadastrada" for a violation of the isbn index; any other constraint failure is a bug, not a
+     * business error, and goes through unchanged.
+     */
+    private RuntimeException duplicateIsbn(DataIntegrityViolationException ex) {
+        if (ConstraintViolations.isViolationOf(ex, Book.ISBN_INDEX)) {
+            return new BusinessException("Isbn já cadastrada");
+        }
+        return ex;
+    }
+
+    /**
+     * Caches a book loaded from the database, unless it would replace an entry or a write committed since
+     * {@code seen}, in which case the loaded row may be older than the committed one.
+     */
+    private void cacheIfCurrent(Book book, long seen) {
+        Book copy = book.toBuilder().build();
+        booksById.putIfAbsent(copy.getId(), copy);
+        if (copy.getIsbn() != null) {
+            booksByIsbn.putIfAbsent(copy.getIsbn(), copy);
+        }
+        if (invalidations.get() != seen) {
+            evict(copy.getId(), copy.getIsbn());
+        }
+    }
+
+    private void cache(Book copy) {
+        booksById.put(copy.getId(), copy);
+        if (copy.getIsbn() != null) {
+            booksByIsbn.put(copy.getIsbn(), copy);
+        }
+    }
+
+    /**
+     * Evicts the entries of a written book. Counting the invalidation first keeps reads that loaded the previous
+     * row from caching it afterwards.
+     */
+    private void invalidate(Long id, Long isbn) {
+        invalidations.incrementAndGet();
+        evict(id, isbn);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void evict(Long id, Long isbn) {
+        booksById.evict(id);
+        if (isbn != null) {
+            booksByIsbn.evict(isbn);
+        }
+    }
+
+    /**
+     * Isbn the book is currently stored with, so the isbn entry can be evicted even when the update changes it.
+     */
+    private Long previousIsbn(Long id) {
+        Book cached = booksById.get(id, Book.class);
+        if (cached != null) {
+            return cached.getIsbn();
+        }
+        return bookRepository.findById(id).map(Book::getIsbn).orElse(null);
+    }
+
+    private Example<Book> example(Book filter) {
+        return Example.of(filter,
+                ExampleMatcher.matching()
+                        .withIgnoreCase()
+                        .withIgnoreNullValues()
+                        .withIgnorePaths("version")
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
     }
 
 }
@@ -0,0 +1,94 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.config.CustomerMigrationProperties;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.CustomerMigrationService;
+import com.udemy.library.service.CustomerService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Log4j2
+public class CustomerMigrationServiceImpl implements CustomerMigrationService {
+
+    private final LoanRepository loanRepository;
+    private final CustomerService customerService;
+    private final CustomerMigrationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerMigrationServiceImpl(LoanRepository loanRepository, CustomerService customerService,
+                                        CustomerMigrationProperties properties,
+                                        PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.customerService = customerService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs ahead of the other startup listeners, so the loan statistics are built from migrated customers.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrateOnStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        long migrated = migrate();
+        if (migrated > 0) {
+            log.info("Migrated the customer of {} loans in {} ms", migrated, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Walks the loans in id order, so each chunk is a primary key range; the position is only kept for the run,
+     * since migrated loans no longer match and a new run just skips over them.
+     */
+    @Override
+    public long migrate() {
+        long migrated = 0;
+        long lastId = 0;
+        while (true) {
+            long from = lastId;
+            long[] chunk = transactionTemplate.execute(status -> migrateChunkAfter(from));
+            migrated += chunk[0];
+            if (chunk[0] < properties.getChunkSize()) {
+                return migrated;
+            }
+            lastId = chunk[1];
+        }
+    }
+
+    /**
+     * Migrates the next chunk with one update per distinct customer; returns the loans migrated and the last id.
+     */
+    private long[] migrateChunkAfter(long lastId) {
+        List<Object[]> rows = loanRepository.findLegacyCustomersAfter(lastId, PageRequest.of(0, properties.getChunkSize()));
+        if (rows.isEmpty()) {
+            return new long[]{0, lastId};
+        }
+        Map<String, List<Long>> idsByName = new HashMap<>();
+        for (Object[] row : rows) {
+            idsByName.computeIfAbsent((String) row[1], name -> new ArrayList<>()).add((Long) row[0]);
+        }
+        idsByName.forEach((name, ids) -> {
+            Customer customer = customerService.resolve(name);
+            loanRepository.migrateCustomer(customer, ids);
+        });
+        return new long[]{rows.size(), (Long) rows.get(rows.size() - 1)[0]};
+    }
+}
@@ -0,0 +1,90 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.domain.Customer;
+import com.udemy.library.repository.CustomerRepository;
+import com.udemy.library.service.CustomerService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Service
+@Log4j2
+public class CustomerServiceImpl implements CustomerService {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Name to id of every customer seen so far. Customers are never renamed nor deleted, so entries never go stale.
+     */
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    /**
+     * New customers are inserted in their own transaction, so a concurrent insert of the same name, rejected by the
+     * unique name index, does not roll back the caller's work.
+     */
+    public CustomerServiceImpl(CustomerRepository customerRepository, PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Customer resolve(String name) {
+        if (name == null) {
+            return null;
+        }
+        Long id = ids.get(name);
+        if (id == null) {
+            id = customerRepository.findIdByName(name).orElseGet(() -> create(name));
+            ids.put(name, id);
+        }
+        return customerRepository.getOne(id);
+    }
+
+    private Long create(String name) {
+        try {
+            return newTransaction.execute(status ->
+                    customerRepository.saveAndFlush(Customer.builder().name(name).build()).getId());
+        } catch (DataIntegrityViolationException ex) {
+            return customerRepository.findIdByName(name).orElseThrow(() -> ex);
+        }
+    }
+
+    @Override
+    public Optional<Long> findId(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        Long id = ids.get(name);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<Long> stored = customerRepository.findIdByName(name);
+        stored.ifPresent(storedId -> ids.put(name, storedId));
+        return stored;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> customers = customerRepository.streamIdsAndNames()) {
+                customers.forEach(customer -> ids.put((String) customer[1], (Long) customer[0]));
+            }
+        });
+        log.info("Customer dictionary loaded with {} names", ids.size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.udemy.library.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.udemy.library.domain.Book;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.ExportService;
+import com.udemy.library.service.LineFormat;
+import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.LoanExportDTO;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes every row to the output as soon as it is read from a forward-only repository cursor. Book entities are
+ * detached right after being written and loans are read as DTOs, so the heap stays flat whatever the table size.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final String BOOK_HEADER = "id,title,author,isbn";
+    private static final String LOAN_HEADER = "id,customer,loanDate,returned,bookId,isbn";
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ExportServiceImpl(BookRepository bookRepository, LoanRepository loanRepository,
+                             EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.loanRepository = loanRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(LineFormat format, OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            return write(books, format, out, BOOK_HEADER,
+                    book -> new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn()),
+                    book -> new Object[]{book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn()},
+                    entityManager::detach);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportLoans(LineFormat format, OutputStream out) throws IOException {
+        try (Stream<LoanExportDTO> loans = loanRepository.streamAllForExport()) {
+            return write(loans, format, out, LOAN_HEADER,
+                    loan -> loan,
+                    loan -> new Object[]{loan.getId(), loan.getCustomer(), loan.getLoanDate(), loan.getReturned(),
+                            loan.getBookId(), loan.getIsbn()},
+                    loan -> { });
+        }
+    }
+
+    private <T> long write(Stream<T> rows, LineFormat format, OutputStream out, String csvHeader,
+                           Function<T, Object> toJson, Function<T, Object[]> toCsv, Consumer<T> afterWrite) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        SequenceWriter json = null;
+        if (format == LineFormat.NDJSON) {
+            json = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(writer);
+        } else {
+            writer.write(csvHeader);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (json != null) {
+                json.write(toJson.apply(row));
+            } else {
+                writeCsv(writer, toCsv.apply(row));
+            }
+            afterWrite.accept(row);
+            count++;
+        }
+
+        if (json != null) {
+            json.flush();
+            if (count > 0) {
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsv(Writer writer, Object[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] != null) {
+                String value = fields[i].toString();
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+        }
+        writer.write('\n');
+    }
+}
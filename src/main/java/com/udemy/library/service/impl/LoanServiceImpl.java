@@ -3,29 +3,71 @@ package com.udemy.library.service.impl;
 import com.udemy.library.domain.Book;
 import com.udemy.library.domain.Loan;
 import com.udemy.library.exception.BusinessException;
+import com.udemy.library.exception.ConstraintViolations;
 import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.ApproximateCounter;
+import com.udemy.library.service.BookAvailabilityService;
+import com.udemy.library.service.Cursor;
+import com.udemy.library.service.CustomerService;
 import com.udemy.library.service.LoanService;
+import com.udemy.library.service.LoanStatsService;
+import com.udemy.library.web.rest.dto.BatchReturnResultDTO;
+import com.udemy.library.web.rest.dto.LoanDTO;
 import com.udemy.library.web.rest.dto.LoanFilterDTO;
+import com.udemy.library.web.rest.dto.LoanStateDTO;
+import com.udemy.library.web.rest.dto.ReturnItemDTO;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LoanServiceImpl implements LoanService {
 
     private final LoanRepository loanRepository;
+    private final LoanStatsService loanStatsService;
+    private final BookAvailabilityService bookAvailabilityService;
+    private final CustomerService customerService;
+    private final ApproximateCounter<LoanFilterDTO> approximateCounts = new ApproximateCounter<>(Duration.ofMinutes(1), 1_000);
 
-    public LoanServiceImpl(LoanRepository loanRepository) {
+    public LoanServiceImpl(LoanRepository loanRepository, LoanStatsService loanStatsService,
+                           BookAvailabilityService bookAvailabilityService, CustomerService customerService) {
         this.loanRepository = loanRepository;
+        this.loanStatsService = loanStatsService;
+        this.bookAvailabilityService = bookAvailabilityService;
+        this.customerService = customerService;
     }
 
+    /**
+     * Checks the book out with a single insert. The unique active book column rejects a second active loan of the
+     * same book, so concurrent checkouts of one book cannot both succeed while different books never contend. A book
+     * the in-memory set holds as on loan is confirmed with an index lookup and rejected without the failing insert.
+     */
     @Override
     public Loan save(Loan loan) {
-        if (loanRepository.existsByBookAndNotReturned(loan.getBook())) {
+        Long bookId = bookId(loan);
+        if (bookId != null && bookAvailabilityService.isOnLoan(bookId) && loanRepository.existsByActiveBookId(bookId)) {
             throw new BusinessException("Book already loaned");
         }
-        return loanRepository.save(loan);
+        Loan saved;
+        try {
+            saved = loanRepository.saveAndFlush(loan);
+        } catch (DataIntegrityViolationException ex) {
+            if (!isActiveBookViolation(ex)) {
+                throw ex;
+            }
+            bookAvailabilityService.markOnLoan(bookId, true);
+            throw new BusinessException("Book already loaned");
+        }
+        loanStatsService.record(bookId(saved), customerId(saved), 1, isActive(saved) ? 1 : 0);
+        bookAvailabilityService.markOnLoan(bookId(saved), isActive(saved));
+        return saved;
     }
 
     @Override
@@ -33,16 +75,147 @@ public class LoanServiceImpl implements LoanService {
         return loanRepository.findById(bookId);
     }
 
+    /**
+     * The active book column still holds the stored state until the flush, so comparing it with the saved loan tells
+     * whether this update returned or reopened the loan.
+     */
     @Override
     public Loan update(Loan loan) {
-        return loanRepository.save(loan);
+        boolean created = loan.getId() == null;
+        boolean wasActive = !created && loan.getActiveBookId() != null;
+        Loan saved;
+        try {
+            saved = loanRepository.saveAndFlush(loan);
+        } catch (DataIntegrityViolationException ex) {
+            if (!isActiveBookViolation(ex)) {
+                throw ex;
+            }
+            throw new BusinessException("Book already loaned");
+        }
+        int activeDelta = (isActive(saved) ? 1 : 0) - (wasActive ? 1 : 0);
+        loanStatsService.record(bookId(saved), customerId(saved), created ? 1 : 0, activeDelta);
+        if (activeDelta != 0) {
+            bookAvailabilityService.markOnLoan(bookId(saved), isActive(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Only a second active loan of the book is a business error; foreign key and other failures go through.
+     */
+    private static boolean isActiveBookViolation(DataIntegrityViolationException ex) {
+        return ConstraintViolations.isViolationOf(ex, Loan.ACTIVE_BOOK_CONSTRAINT);
+    }
+
+    private static boolean isActive(Loan loan) {
+        return loan.getBook() != null && !Boolean.TRUE.equals(loan.getReturned());
+    }
+
+    private static Long bookId(Loan loan) {
+        return loan.getBook() == null ? null : loan.getBook().getId();
+    }
+
+    private static Long customerId(Loan loan) {
+        return loan.getCustomer() == null ? null : loan.getCustomer().getId();
+    }
+
+    /**
+     * Id of the filtered customer; an unknown name matches no migrated loan. The name itself is passed along too, for
+     * the loans still carrying it in the legacy column.
+     */
+    private Long filteredCustomerId(LoanFilterDTO filter) {
+        return customerService.findId(filter.getCustomer()).orElse(null);
     }
 
     @Override
-    public Page<Loan> find(int page, int size, LoanFilterDTO filter) {
+    public Page<LoanDTO> find(int page, int size, LoanFilterDTO filter) {
 
         Pageable pageable = PageRequest.of(page, size);
 
-        return loanRepository.findByBook_IsbnOrCustomer(filter.getIsbn(),filter.getCustomer(), pageable);
+        return loanRepository.findDtoByIsbnOrCustomer(filter.getIsbn(), filteredCustomerId(filter),
+                filter.getCustomer(), pageable);
+    }
+
+    @Override
+    public Slice<LoanDTO> findSlice(int page, int size, LoanFilterDTO filter) {
+        return loanRepository.findDtoSliceByIsbnOrCustomer(filter.getIsbn(), filteredCustomerId(filter),
+                filter.getCustomer(), PageRequest.of(page, size));
+    }
+
+    @Override
+    public long approximateCount(LoanFilterDTO filter) {
+        return approximateCounts.count(filter,
+                () -> loanRepository.countByIsbnOrCustomer(filter.getIsbn(), filteredCustomerId(filter),
+                        filter.getCustomer()));
+    }
+
+    @Override
+    public Slice<LoanDTO> findAfter(Cursor after, int size, LoanFilterDTO filter) {
+        Long lastId = after.isStart() ? 0L : after.getLastId();
+        return loanRepository.findDtoAfter(lastId, filter.getIsbn(), filteredCustomerId(filter), filter.getCustomer(),
+                PageRequest.of(0, size));
+    }
+
+    /**
+     * Reads the state of the requested loans with one query for the ids and one for the isbns, locks the ones still
+     * active, then returns them with a single set based update, so a whole crate of returns costs a fixed number of
+     * statements in one transaction. Only the loans this batch locked count as returned by it: one returned
+     * concurrently since the read is reported as already returned and not recorded twice.
+     */
+    @Override
+    @Transactional
+    public BatchReturnResultDTO returnAll(Collection<Long> loanIds, Collection<Long> isbns) {
+        Collection<Long> ids = loanIds == null ? Collections.emptyList() : loanIds;
+        Collection<Long> bookIsbns = isbns == null ? Collections.emptyList() : isbns;
+
+        Map<Long, LoanStateDTO> statesById = ids.isEmpty() ? Collections.emptyMap()
+                : loanRepository.findStatesByIdIn(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(LoanStateDTO::getId, Function.identity()));
+        Map<Long, LoanStateDTO> statesByIsbn = bookIsbns.isEmpty() ? Collections.emptyMap()
+                : loanRepository.findLatestStatesByIsbnIn(new HashSet<>(bookIsbns)).stream()
+                .collect(Collectors.toMap(LoanStateDTO::getIsbn, Function.identity()));
+
+        Set<Long> active = Stream.concat(statesById.values().stream(), statesByIsbn.values().stream())
+                .filter(state -> !Boolean.TRUE.equals(state.getReturned()))
+                .map(LoanStateDTO::getId)
+                .collect(Collectors.toSet());
+        Set<Long> toReturn = active.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(loanRepository.lockActiveIdsByIdIn(active));
+
+        Set<Long> reported = new HashSet<>();
+        List<ReturnItemDTO> items = new ArrayList<>(ids.size() + bookIsbns.size());
+        ids.forEach(id -> items.add(returnItem(statesById.get(id), id, null, toReturn, reported)));
+        bookIsbns.forEach(isbn -> items.add(returnItem(statesByIsbn.get(isbn), null, isbn, toReturn, reported)));
+
+        int returned = toReturn.isEmpty() ? 0 : loanRepository.returnAllById(toReturn);
+        recordReturned(statesById.values(), statesByIsbn.values(), toReturn);
+        return new BatchReturnResultDTO(returned, items);
+    }
+
+    /**
+     * Reports each returned loan once to the statistics and the set of books on loan, which apply it when this
+     * transaction commits.
+     */
+    private void recordReturned(Collection<LoanStateDTO> byId, Collection<LoanStateDTO> byIsbn, Set<Long> toReturn) {
+        Set<Long> recorded = new HashSet<>();
+        Stream.concat(byId.stream(), byIsbn.stream())
+                .filter(state -> toReturn.contains(state.getId()) && recorded.add(state.getId()))
+                .forEach(state -> {
+                    loanStatsService.record(state.getBookId(), state.getCustomerId(), 0, -1);
+                    bookAvailabilityService.markOnLoan(state.getBookId(), false);
+                });
+    }
+
+    /**
+     * Result of one requested return; a loan asked for twice, by id and by isbn for instance, is only returned once.
+     */
+    private ReturnItemDTO returnItem(LoanStateDTO state, Long loanId, Long isbn, Set<Long> toReturn,
+                                     Set<Long> reported) {
+        if (state == null) {
+            return new ReturnItemDTO(loanId, isbn, ReturnItemDTO.Status.NOT_FOUND);
+        }
+        boolean returned = toReturn.contains(state.getId()) && reported.add(state.getId());
+        return new ReturnItemDTO(state.getId(), isbn,
+                returned ? ReturnItemDTO.Status.RETURNED : ReturnItemDTO.Status.ALREADY_RETURNED);
     }
 }
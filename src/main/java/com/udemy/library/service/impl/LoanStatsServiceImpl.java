@@ -0,0 +1,226 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.config.LoanStatsProperties;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.LoanStatsService;
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import com.udemy.library.web.rest.dto.LoanStatsVerificationDTO;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+@Service
+@Log4j2
+public class LoanStatsServiceImpl implements LoanStatsService {
+
+    private final LoanRepository loanRepository;
+    private final LoanStatsProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Counters counters = new Counters();
+
+    /**
+     * Counters being rebuilt; changes committed meanwhile are applied to them as well, so the swap does not lose
+     * them. It is only cleared once the rebuilt counters are published.
+     */
+    private volatile Counters rebuilding;
+
+    /**
+     * Deltas are applied after commit, so the counters never see a rolled back loan. Counters are rebuilt from the
+     * loan table when the application starts and verified against it every
+     * {@link LoanStatsProperties#getVerifyInterval()}; a commit racing a rebuild may be counted twice until the next
+     * run.
+     */
+    public LoanStatsServiceImpl(LoanRepository loanRepository, LoanStatsProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.properties = properties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void record(Long bookId, Long customerId, int loans, int activeLoans) {
+        if (loans == 0 && activeLoans == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(bookId, customerId, loans, activeLoans);
+                }
+            });
+        } else {
+            apply(bookId, customerId, loans, activeLoans);
+        }
+    }
+
+    /**
+     * Reads the counters being rebuilt before the live ones: once {@code rebuilding} reads null the rebuilt counters
+     * are already live, so a change is never applied to the replaced counters only. Once they are live it is
+     * applied to them a single time.
+     */
+    private void apply(Long bookId, Long customerId, int loans, int activeLoans) {
+        Counters next = rebuilding;
+        Counters current = counters;
+        current.add(bookId, customerId, loans, activeLoans);
+        if (next != null && next != current) {
+            next.add(bookId, customerId, loans, activeLoans);
+        }
+    }
+
+    @Override
+    public LoanStatsDTO stats(Long bookId, Long customerId) {
+        Counters current = counters;
+        LoanStatsDTO.LoanStatsDTOBuilder stats = LoanStatsDTO.builder()
+                .loans(current.loans.sum())
+                .activeLoans(current.activeLoans.sum());
+        if (bookId != null) {
+            Count count = current.byBook.getOrDefault(bookId, Count.ZERO);
+            stats.bookLoans(count.loans).bookActiveLoans(count.active);
+        }
+        if (customerId != null) {
+            Count count = current.byCustomer.getOrDefault(customerId, Count.ZERO);
+            stats.customerLoans(count.loans).customerActiveLoans(count.active);
+        }
+        return stats.build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.loan-stats.verify-interval:PT6H}",
+            initialDelayString = "${library.loan-stats.verify-interval:PT6H}")
+    public void verify() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every counter with one aggregate pass per key over the loan table, compares them with the live
+     * ones and swaps them in. Rows are merged into the counters rather than replacing them, so changes applied
+     * while they are read are kept.
+     */
+    @Override
+    public synchronized LoanStatsVerificationDTO rebuild() {
+        long started = System.nanoTime();
+        Counters previous = counters;
+        Counters fresh = new Counters();
+        rebuilding = fresh;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                fresh.loans.add(loanRepository.countAll());
+                fresh.activeLoans.add(loanRepository.countActive());
+                try (Stream<Object[]> rows = loanRepository.streamCountsByBook()) {
+                    rows.filter(row -> row[0] != null)
+                            .forEach(row -> fresh.byBook.merge((Long) row[0], Count.of(row[1], row[2]), Count::plus));
+                }
+                try (Stream<Object[]> rows = loanRepository.streamCountsByCustomer()) {
+                    rows.filter(row -> row[0] != null)
+                            .forEach(row -> fresh.byCustomer.merge((Long) row[0], Count.of(row[1], row[2]),
+                                    Count::plus));
+                }
+            });
+            counters = fresh;
+        } finally {
+            rebuilding = null;
+        }
+
+        LoanStatsVerificationDTO verification = LoanStatsVerificationDTO.builder()
+                .totalsMatched(previous.loans.sum() == fresh.loans.sum()
+                        && previous.activeLoans.sum() == fresh.activeLoans.sum())
+                .bookMismatches(mismatches(previous.byBook, fresh.byBook))
+                .customerMismatches(mismatches(previous.byCustomer, fresh.byCustomer))
+                .books(fresh.byBook.size())
+                .customers(fresh.byCustomer.size())
+                .durationMillis((System.nanoTime() - started) / 1_000_000)
+                .build();
+        log.info("Loan statistics rebuilt: {}", verification);
+        return verification;
+    }
+
+    private static <K> long mismatches(Map<K, Count> previous, Map<K, Count> fresh) {
+        long mismatches = fresh.entrySet().stream()
+                .filter(entry -> !entry.getValue().sameAs(previous.getOrDefault(entry.getKey(), Count.ZERO)))
+                .count();
+        return mismatches + previous.entrySet().stream()
+                .filter(entry -> !fresh.containsKey(entry.getKey()) && !entry.getValue().sameAs(Count.ZERO))
+                .count();
+    }
+
+    private static final class Counters {
+
+        final LongAdder loans = new LongAdder();
+        final LongAdder activeLoans = new LongAdder();
+        final Map<Long, Count> byBook = new ConcurrentHashMap<>();
+        final Map<Long, Count> byCustomer = new ConcurrentHashMap<>();
+
+        void add(Long bookId, Long customerId, int loanDelta, int activeDelta) {
+            loans.add(loanDelta);
+            activeLoans.add(activeDelta);
+            if (bookId != null) {
+                byBook.computeIfAbsent(bookId, key -> new Count()).add(loanDelta, activeDelta);
+            }
+            if (customerId != null) {
+                byCustomer.computeIfAbsent(customerId, key -> new Count()).add(loanDelta, activeDelta);
+            }
+        }
+    }
+
+    /**
+     * Counters of one book or customer. Two plain longs behind field updaters rather than two {@code AtomicLong}s,
+     * since there is one per book and per customer.
+     */
+    private static final class Count {
+
+        static final Count ZERO = new Count();
+
+        private static final AtomicLongFieldUpdater<Count> LOANS = AtomicLongFieldUpdater.newUpdater(Count.class, "loans");
+        private static final AtomicLongFieldUpdater<Count> ACTIVE = AtomicLongFieldUpdater.newUpdater(Count.class, "active");
+
+        volatile long loans;
+        volatile long active;
+
+        static Count of(Object loans, Object active) {
+            Count count = new Count();
+            count.loans = ((Number) loans).longValue();
+            count.active = active == null ? 0 : ((Number) active).longValue();
+            return count;
+        }
+
+        void add(long loanDelta, long activeDelta) {
+            LOANS.addAndGet(this, loanDelta);
+            ACTIVE.addAndGet(this, activeDelta);
+        }
+
+        /**
+         * Adds the counted rows to the changes applied while they were being read.
+         */
+        Count plus(Count counted) {
+            add(counted.loans, counted.active);
+            return this;
+        }
+
+        boolean sameAs(Count other) {
+            return loans == other.loans && active == other.active;
+        }
+    }
+}
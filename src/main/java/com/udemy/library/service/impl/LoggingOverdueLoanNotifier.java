@@ -0,0 +1,20 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.service.OverdueLoanNotifier;
+import com.udemy.library.web.rest.dto.OverdueLoanDTO;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.List;
+
+/**
+ * Stand-in notifier writing one log line per overdue loan.
+ */
+@Log4j2
+public class LoggingOverdueLoanNotifier implements OverdueLoanNotifier {
+
+    @Override
+    public void publish(List<OverdueLoanDTO> loans) {
+        loans.forEach(loan -> log.info("Overdue loan {}: book {} ({}) loaned to {} on {}",
+                loan.getId(), loan.getIsbn(), loan.getTitle(), loan.getCustomer(), loan.getLoanDate()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.udemy.library.service.impl;
+
+import com.udemy.library.config.OverdueProperties;
+import com.udemy.library.domain.JobCheckpoint;
+import com.udemy.library.repository.JobCheckpointRepository;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.OverdueLoanNotifier;
+import com.udemy.library.service.OverdueLoanService;
+import com.udemy.library.web.rest.dto.OverdueLoanDTO;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Finds loans that became overdue since the previous run. Active loans are walked in ({@code loanDate}, id) order over
+ * the {@code (returned, loan_date)} index, starting after the key stored in the {@code overdue-loans}
+ * {@link JobCheckpoint}. Each chunk is published and the checkpoint advanced in one transaction, and a run stops after
+ * {@link OverdueProperties#getMaxChunksPerRun()} chunks, so its cost depends on the newly overdue loans only and never
+ * on the size of the loan history.
+ */
+@Service
+@Log4j2
+public class OverdueLoanServiceImpl implements OverdueLoanService {
+
+    static final String CHECKPOINT = "overdue-loans";
+    private static final LocalDate BEGINNING = LocalDate.of(1, 1, 1);
+
+    private final LoanRepository loanRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final OverdueLoanNotifier overdueLoanNotifier;
+    private final OverdueProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public OverdueLoanServiceImpl(LoanRepository loanRepository, JobCheckpointRepository jobCheckpointRepository,
+                                  OverdueLoanNotifier overdueLoanNotifier, OverdueProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.overdueLoanNotifier = overdueLoanNotifier;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${library.overdue.interval:PT1H}", initialDelayString = "${library.overdue.interval:PT1H}")
+    public void run() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        long notified = notifyOverdue(LocalDate.now());
+        log.info("Overdue loan job notified {} loans in {} ms", notified, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public long notifyOverdue(LocalDate today) {
+        LocalDate cutoff = today.minus(properties.getLoanPeriod());
+        long notified = 0;
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            Integer published = transactionTemplate.execute(status -> publishNextChunk(cutoff));
+            notified += published;
+            if (published < properties.getChunkSize()) {
+                break;
+            }
+        }
+        return notified;
+    }
+
+    private int publishNextChunk(LocalDate cutoff) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> JobCheckpoint.builder().name(CHECKPOINT).lastLoanDate(BEGINNING).lastId(0L).build());
+
+        List<OverdueLoanDTO> overdue = loanRepository.findOverdueAfter(cutoff, checkpoint.getLastLoanDate(),
+                checkpoint.getLastId(), PageRequest.of(0, properties.getChunkSize()));
+        if (overdue.isEmpty()) {
+            return 0;
+        }
+
+        overdueLoanNotifier.publish(overdue);
+
+        OverdueLoanDTO last = overdue.get(overdue.size() - 1);
+        checkpoint.setLastLoanDate(last.getLoanDate());
+        checkpoint.setLastId(last.getId());
+        jobCheckpointRepository.save(checkpoint);
+        return overdue.size();
+    }
+}
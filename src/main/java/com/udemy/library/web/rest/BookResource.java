@@ -1,72 +1,165 @@
 package com.udemy.library.web.rest;
 
+import com.udemy.library.config.LogMarkers;
+import com.udemy.library.config.Offloaded;
 import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookImportService;
+import com.udemy.library.service.BookSearchService;
 import com.udemy.library.service.BookService;
+import com.udemy.library.service.BookSort;
+import com.udemy.library.service.Cursor;
+import com.udemy.library.service.LineFormat;
 import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.BulkImportResultDTO;
+import com.udemy.library.web.rest.dto.PageDTO;
+import com.udemy.library.web.rest.dto.SliceDTO;
+import com.udemy.library.web.rest.mapper.BookMapper;
 import lombok.extern.log4j.Log4j2;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 @RestController
+@Offloaded
 @RequestMapping("/api/books")
 @Log4j2
 public class BookResource {
 
+    static final String NDJSON = "application/x-ndjson";
+
     private final BookService bookService;
-    private final ModelMapper modelMapper;
+    private final BookImportService bookImportService;
+    private final BookSearchService bookSearchService;
+    private final BookMapper bookMapper;
 
-    public BookResource(BookService bookService, ModelMapper modelMapper) {
+    public BookResource(BookService bookService, BookImportService bookImportService,
+                        BookSearchService bookSearchService, BookMapper bookMapper) {
         this.bookService = bookService;
-        this.modelMapper = modelMapper;
+        this.bookImportService = bookImportService;
+        this.bookSearchService = bookSearchService;
+        this.bookMapper = bookMapper;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookDTO create(@RequestBody @Valid BookDTO bookDTO) {
         log.info("Request to save book: {}", bookDTO);
-        Book book = bookService.save(modelMapper.map(bookDTO, Book.class));
-        return modelMapper.map(book, BookDTO.class);
+        Book book = bookService.save(bookMapper.toEntity(bookDTO));
+        return bookMapper.toDto(book);
+    }
+
+    @PostMapping(value = "/bulk", consumes = {NDJSON, "text/csv"})
+    public BulkImportResultDTO bulkImport(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+        log.info("Request to import books: {}", contentType);
+        LineFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                ? LineFormat.NDJSON
+                : LineFormat.CSV;
+        return bookImportService.importBooks(new InputStreamReader(body, StandardCharsets.UTF_8), format);
     }
 
+    /**
+     * A matching {@code If-None-Match} is answered with 304 from a version-only lookup, without loading, mapping or
+     * serializing the book.
+     */
     @GetMapping("/{id}")
-    public BookDTO getById(@PathVariable Long id) {
-        log.info("Request to find book by id: {}", id);
+    public ResponseEntity<BookDTO> getById(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info(LogMarkers.GET_BOOK, "Request to find book by id: {}", id);
+        if (ifNoneMatch != null) {
+            String etag = bookService.findVersionById(id)
+                    .map(ETags::of)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+            if (ETags.matchesWeak(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         return bookService.findById(id)
-                .map(book -> modelMapper.map(book, BookDTO.class))
+                .map(book -> ResponseEntity.ok().eTag(ETags.of(book.getVersion())).body(bookMapper.toDto(book)))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     @GetMapping()
-    public Page<BookDTO> find(Integer page, Integer size, BookDTO bookDTO) {
-        log.info("Request to find book:");
-        Page<Book> result = bookService.find(page, size, modelMapper.map(bookDTO, Book.class));
-        List<BookDTO> bookDTOS = result.getContent().stream()
-                .map(book -> modelMapper.map(book, BookDTO.class))
-                .collect(Collectors.toList());
-        return new PageImpl<BookDTO>(bookDTOS, PageRequest.of(page, size), result.getTotalElements());
+    public PageDTO<BookDTO> find(Integer page, Integer size, BookDTO bookDTO) {
+        log.info(LogMarkers.FIND_BOOKS, "Request to find book:");
+        Page<Book> result = bookService.find(page, size, bookMapper.toEntity(bookDTO));
+        return PageDTO.of(result, bookMapper::toDto);
+    }
+
+    @GetMapping(params = {"withTotal=false", "!after"})
+    public SliceDTO<BookDTO> findSlice(@RequestParam(defaultValue = "0") Integer page,
+                                       @RequestParam(defaultValue = "20") Integer size,
+                                       @RequestParam(defaultValue = "false") boolean approximateTotal, BookDTO bookDTO) {
+        log.info(LogMarkers.FIND_BOOKS, "Request to find book without total:");
+        Book filter = bookMapper.toEntity(bookDTO);
+        Slice<Book> result = bookService.findSlice(page, size, filter);
+        return SliceDTO.<BookDTO>builder()
+                .content(bookMapper.toDto(result.getContent()))
+                .page(page)
+                .size(size)
+                .hasNext(result.hasNext())
+                .approximateTotal(approximateTotal ? bookService.approximateCount(filter) : null)
+                .build();
+    }
+
+    @GetMapping(params = "after")
+    public SliceDTO<BookDTO> findAfter(@RequestParam String after, @RequestParam(defaultValue = "20") Integer size,
+                                       @RequestParam(required = false) String sort, BookDTO bookDTO) {
+        log.info(LogMarkers.FIND_BOOKS, "Request to find book after: {}", after);
+        BookSort bookSort = BookSort.of(sort);
+        Slice<Book> result = bookService.findAfter(Cursor.decode(after), size, bookMapper.toEntity(bookDTO), bookSort);
+        String next = null;
+        if (result.hasNext()) {
+            Book last = result.getContent().get(result.getNumberOfElements() - 1);
+            next = Cursor.of(last.getId(), bookSort.sortKeyOf(last)).encode();
+        }
+        return SliceDTO.<BookDTO>builder()
+                .content(bookMapper.toDto(result.getContent()))
+                .size(size)
+                .hasNext(result.hasNext())
+                .next(next)
+                .build();
     }
 
+    @GetMapping("/search")
+    public SliceDTO<BookDTO> search(@RequestParam String q, @RequestParam(defaultValue = "0") Integer page,
+                                    @RequestParam(defaultValue = "20") Integer size) {
+        log.info(LogMarkers.SEARCH_BOOKS, "Request to search books: {}", q);
+        Slice<Book> result = bookSearchService.search(q, page, size);
+        return SliceDTO.<BookDTO>builder()
+                .content(bookMapper.toDto(result.getContent()))
+                .page(page)
+                .size(size)
+                .hasNext(result.hasNext())
+                .build();
+    }
+
+    /**
+     * With {@code If-Match} the update only applies to the version the client has seen, otherwise 412. A concurrent
+     * update between the check and the write is caught by the version column and also answered with 412.
+     */
     @PutMapping("/{id}")
-    public BookDTO update(@RequestBody @Valid BookDTO bookDTO, @PathVariable Long id) {
+    public ResponseEntity<BookDTO> update(@RequestBody @Valid BookDTO bookDTO, @PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Request to update book: {}", bookDTO);
-        return bookService.findById(id)
-                .map(book -> {
-                    book.setAuthor(bookDTO.getAuthor());
-                    book.setTitle(bookDTO.getTitle());
-                    book.setIsbn(bookDTO.getIsbn());
-                    return modelMapper.map(bookService.update(book), BookDTO.class);
-                })
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-
+        Book book = bookService.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (ifMatch != null && !ETags.matchesStrong(ifMatch, ETags.of(book.getVersion()))) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Resource was changed by another request");
+        }
+        book.setAuthor(bookDTO.getAuthor());
+        book.setTitle(bookDTO.getTitle());
+        book.setIsbn(bookDTO.getIsbn());
+        Book updated = bookService.update(book);
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(bookMapper.toDto(updated));
     }
 
     @DeleteMapping("/{id}")
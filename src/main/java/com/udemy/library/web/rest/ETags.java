@@ -0,0 +1,50 @@
+package com.udemy.library.web.rest;
+
+/**
+ * Strong entity tags derived from an entity version, and the matching rules of {@code If-None-Match} and
+ * {@code If-Match}.
+ */
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * {@code If-None-Match}: weak comparison, so a {@code W/} prefix on either side is ignored.
+     */
+    public static boolean matchesWeak(String header, String etag) {
+        return matches(header, etag, true);
+    }
+
+    /**
+     * {@code If-Match}: strong comparison, a weak tag never matches.
+     */
+    public static boolean matchesStrong(String header, String etag) {
+        return matches(header, etag, false);
+    }
+
+    private static boolean matches(String header, String etag, boolean weak) {
+        if (header.trim().equals("*")) {
+            return true;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package com.udemy.library.web.rest;
+
+import com.udemy.library.service.ExportService;
+import com.udemy.library.service.LineFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Log4j2
+public class ExportResource {
+
+    /**
+     * Exports stream for as long as the table takes to read; every other async request keeps the default timeout.
+     */
+    static final Duration EXPORT_TIMEOUT = Duration.ofHours(1);
+
+    private final ExportService exportService;
+
+    @GetMapping("/books/export")
+    public WebAsyncTask<Void> exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                          HttpServletResponse response) {
+        log.info("Request to export books: {}", format);
+        LineFormat lineFormat = LineFormat.of(format);
+        return stream("books", lineFormat, response, out -> exportService.exportBooks(lineFormat, out));
+    }
+
+    @GetMapping("/loans/export")
+    public WebAsyncTask<Void> exportLoans(@RequestParam(defaultValue = "ndjson") String format,
+                                          HttpServletResponse response) {
+        log.info("Request to export loans: {}", format);
+        LineFormat lineFormat = LineFormat.of(format);
+        return stream("loans", lineFormat, response, out -> exportService.exportLoans(lineFormat, out));
+    }
+
+    /**
+     * Writes the body straight to the response on the async executor. The task carries its own timeout, which a
+     * {@code StreamingResponseBody} cannot.
+     */
+    private WebAsyncTask<Void> stream(String name, LineFormat format, HttpServletResponse response, Export export) {
+        MediaType mediaType = format == LineFormat.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType(BookResource.NDJSON);
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=" + name + "." + format.name().toLowerCase(Locale.ROOT));
+        return new WebAsyncTask<>(EXPORT_TIMEOUT.toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            export.writeTo(out);
+            out.flush();
+            return null;
+        });
+    }
+
+    interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -1,29 +1,36 @@
 package com.udemy.library.web.rest;
 
+import com.udemy.library.config.LogMarkers;
+import com.udemy.library.config.Offloaded;
 import com.udemy.library.domain.Book;
 import com.udemy.library.domain.Loan;
+import com.udemy.library.service.BookAvailabilityService;
 import com.udemy.library.service.BookService;
+import com.udemy.library.service.Cursor;
+import com.udemy.library.service.CustomerService;
 import com.udemy.library.service.LoanService;
-import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.service.LoanStatsService;
+import com.udemy.library.web.rest.dto.BatchReturnDTO;
+import com.udemy.library.web.rest.dto.BatchReturnResultDTO;
+import com.udemy.library.web.rest.dto.BookAvailabilityDTO;
 import com.udemy.library.web.rest.dto.LoanDTO;
 import com.udemy.library.web.rest.dto.LoanFilterDTO;
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import com.udemy.library.web.rest.dto.PageDTO;
 import com.udemy.library.web.rest.dto.ReturnedLoanDTO;
+import com.udemy.library.web.rest.dto.SliceDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
+@Offloaded
 @RequestMapping("/api/loans")
 @RequiredArgsConstructor
 @Log4j2
@@ -31,26 +38,83 @@ public class LoanResource {
 
     private final LoanService loanService;
     private final BookService bookService;
-    private final ModelMapper modelMapper;
-
+    private final LoanStatsService loanStatsService;
+    private final BookAvailabilityService bookAvailabilityService;
+    private final CustomerService customerService;
 
     @GetMapping()
-    public Page<LoanDTO> find(Integer page, Integer size, LoanFilterDTO loanFilterDTO) {
-        log.info("Request to find book:");
-
-        Page<Loan> result = loanService.find(page, size, loanFilterDTO);
-
-        List<LoanDTO> loanDTOS = result.getContent().stream()
-                .map(loan -> {
-                    Book book = loan.getBook();
-                    BookDTO bookDTO = modelMapper.map(book, BookDTO.class);
-                    LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
-                    loanDTO.setBook(bookDTO);
-                    return loanDTO;
-                })
-                .collect(Collectors.toList());
-
-        return new PageImpl<LoanDTO>(loanDTOS, PageRequest.of(page, size), result.getTotalElements());
+    public PageDTO<LoanDTO> find(Integer page, Integer size, LoanFilterDTO loanFilterDTO) {
+        log.info(LogMarkers.FIND_LOANS, "Request to find book:");
+
+        return PageDTO.of(loanService.find(page, size, loanFilterDTO));
+    }
+
+    @GetMapping(params = {"withTotal=false", "!after"})
+    public SliceDTO<LoanDTO> findSlice(@RequestParam(defaultValue = "0") Integer page,
+                                       @RequestParam(defaultValue = "20") Integer size,
+                                       @RequestParam(defaultValue = "false") boolean approximateTotal,
+                                       LoanFilterDTO loanFilterDTO) {
+        log.info(LogMarkers.FIND_LOANS, "Request to find loans without total:");
+
+        Slice<LoanDTO> result = loanService.findSlice(page, size, loanFilterDTO);
+
+        return SliceDTO.<LoanDTO>builder()
+                .content(result.getContent())
+                .page(page)
+                .size(size)
+                .hasNext(result.hasNext())
+                .approximateTotal(approximateTotal ? loanService.approximateCount(loanFilterDTO) : null)
+                .build();
+    }
+
+    @GetMapping(params = "after")
+    public SliceDTO<LoanDTO> findAfter(@RequestParam String after, @RequestParam(defaultValue = "20") Integer size,
+                                       LoanFilterDTO loanFilterDTO) {
+        log.info(LogMarkers.FIND_LOANS, "Request to find loans after: {}", after);
+
+        Slice<LoanDTO> result = loanService.findAfter(Cursor.decode(after), size, loanFilterDTO);
+
+        String next = null;
+        if (result.hasNext()) {
+            LoanDTO last = result.getContent().get(result.getNumberOfElements() - 1);
+            next = Cursor.of(last.getId(), null).encode();
+        }
+        return SliceDTO.<LoanDTO>builder()
+                .content(result.getContent())
+                .size(size)
+                .hasNext(result.hasNext())
+                .next(next)
+                .build();
+    }
+
+    /**
+     * Loan totals, and those of one book or customer when asked, read from counters rather than counted per request.
+     */
+    @GetMapping("/stats")
+    public LoanStatsDTO stats(Long isbn, String customer) {
+        Long bookId = null;
+        if (isbn != null) {
+            bookId = bookService.getBookByIsbn(isbn)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found for passed isbn"))
+                    .getId();
+        }
+        Long customerId = null;
+        if (customer != null) {
+            customerId = customerService.findId(customer)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
+        }
+        LoanStatsDTO stats = loanStatsService.stats(bookId, customerId);
+        stats.setIsbn(isbn);
+        stats.setCustomer(customer);
+        return stats;
+    }
+
+    @GetMapping("/availability")
+    public BookAvailabilityDTO availability(@RequestParam Long isbn) {
+        Book book = bookService.getBookByIsbn(isbn)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found for passed isbn"));
+
+        return new BookAvailabilityDTO(isbn, !bookAvailabilityService.isOnLoan(book.getId()));
     }
 
     @PostMapping
@@ -62,12 +126,19 @@ public class LoanResource {
         Loan loan = Loan.builder()
                 .book(book)
                 .loanDate(LocalDate.now())
-                .customer(loanDTO.getCustomer())
+                .customer(customerService.resolve(loanDTO.getCustomer()))
                 .build();
 
         return loanService.save(loan).getId();
     }
 
+    @PatchMapping("/return")
+    public BatchReturnResultDTO returnBooks(@RequestBody @Valid BatchReturnDTO batchReturnDTO) {
+        log.info("Request to return loans: {}", batchReturnDTO);
+
+        return loanService.returnAll(batchReturnDTO.getLoanIds(), batchReturnDTO.getIsbns());
+    }
+
     @PatchMapping("/{bookId}")
     public void returnBook(@RequestBody @Valid ReturnedLoanDTO returnedLoanDTO, @PathVariable Long bookId) {
         Loan loan = loanService.getById(bookId)
@@ -0,0 +1,51 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnDTO implements StringBuilderFormattable {
+
+    @Size(max = 1000)
+    private List<Long> loanIds;
+
+    @Size(max = 1000)
+    private List<Long> isbns;
+
+    /**
+     * Same text as {@code toString()}; ids are appended one by one instead of through {@code List.toString()}.
+     */
+    @Override
+    public void formatTo(StringBuilder buffer) {
+        buffer.append("BatchReturnDTO(loanIds=");
+        appendIds(buffer, loanIds);
+        buffer.append(", isbns=");
+        appendIds(buffer, isbns);
+        buffer.append(')');
+    }
+
+    private static void appendIds(StringBuilder buffer, List<Long> ids) {
+        if (ids == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('[');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            StringBuilders.appendValue(buffer, ids.get(i));
+        }
+        buffer.append(']');
+    }
+}
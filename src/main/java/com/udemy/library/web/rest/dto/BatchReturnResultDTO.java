@@ -0,0 +1,18 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnResultDTO {
+
+    private long returned;
+    private List<ReturnItemDTO> items;
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -12,7 +14,7 @@ import javax.validation.constraints.NotNull;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class BookDTO {
+public class BookDTO implements StringBuilderFormattable {
 
     private Long id;
 
@@ -24,4 +26,16 @@ public class BookDTO {
 
     @NotNull
     private Long isbn;
+
+    /**
+     * Same text as {@code toString()}, appended to the log buffer without intermediate strings.
+     */
+    @Override
+    public void formatTo(StringBuilder buffer) {
+        buffer.append("BookDTO(id=");
+        StringBuilders.appendValue(buffer, id);
+        buffer.append(", title=").append(title).append(", author=").append(author).append(", isbn=");
+        StringBuilders.appendValue(buffer, isbn);
+        buffer.append(')');
+    }
 }
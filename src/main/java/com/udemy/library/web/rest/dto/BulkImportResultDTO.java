@@ -0,0 +1,20 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDTO {
+
+    private long imported;
+    private long rejected;
+    private List<LineErrorDTO> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,31 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HibernateStatisticsDTO {
+
+    private boolean enabled;
+    private long since;
+    private long queryExecutionCount;
+    private long queryExecutionMaxTime;
+    private String queryExecutionMaxTimeQuery;
+    private long prepareStatementCount;
+    private long entityLoadCount;
+    private long entityFetchCount;
+    private long entityInsertCount;
+    private long entityUpdateCount;
+    private long entityDeleteCount;
+    private long collectionLoadCount;
+    private long collectionFetchCount;
+    private long transactionCount;
+    private List<QueryStatisticsDTO> slowestQueries;
+}
@@ -4,15 +4,41 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class LoanDTO {
+public class LoanDTO implements StringBuilderFormattable {
 
     private Long id;
     private Long isbn;
     private String customer;
     private BookDTO book;
+
+    /**
+     * Constructor expression target of the loan search queries in {@code LoanRepository}.
+     */
+    public LoanDTO(Long id, String customer, Long bookId, Long isbn, String title, String author) {
+        this.id = id;
+        this.customer = customer;
+        this.isbn = isbn;
+        this.book = new BookDTO(bookId, title, author, isbn);
+    }
+
+    /**
+     * Garbage-free {@code toString()} for Log4j2 parameters.
+     */
+    @Override
+    public void formatTo(StringBuilder buffer) {
+        buffer.append("LoanDTO(id=");
+        StringBuilders.appendValue(buffer, id);
+        buffer.append(", isbn=");
+        StringBuilders.appendValue(buffer, isbn);
+        buffer.append(", customer=").append(customer).append(", book=");
+        StringBuilders.appendValue(buffer, book);
+        buffer.append(')');
+    }
 }
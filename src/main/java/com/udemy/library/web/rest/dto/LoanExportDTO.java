@@ -0,0 +1,22 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanExportDTO {
+
+    private Long id;
+    private String customer;
+    private LocalDate loanDate;
+    private Boolean returned;
+    private Long bookId;
+    private Long isbn;
+}
@@ -0,0 +1,23 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Return state of one loan, read by the batch return queries in {@code LoanRepository}. The book and customer ids
+ * let the loan statistics follow the returns.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanStateDTO {
+
+    private Long id;
+    private Long isbn;
+    private Boolean returned;
+    private Long bookId;
+    private Long customerId;
+}
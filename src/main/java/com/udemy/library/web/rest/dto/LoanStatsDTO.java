@@ -0,0 +1,24 @@
+package com.udemy.library.web.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanStatsDTO {
+
+    private long loans;
+    private long activeLoans;
+    private Long isbn;
+    private Long bookLoans;
+    private Long bookActiveLoans;
+    private String customer;
+    private Long customerLoans;
+    private Long customerActiveLoans;
+}
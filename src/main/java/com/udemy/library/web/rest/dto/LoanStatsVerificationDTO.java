@@ -0,0 +1,23 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of rebuilding the loan statistics from the loan table: how many counters had drifted from it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanStatsVerificationDTO {
+
+    private boolean totalsMatched;
+    private long bookMismatches;
+    private long customerMismatches;
+    private long books;
+    private long customers;
+    private long durationMillis;
+}
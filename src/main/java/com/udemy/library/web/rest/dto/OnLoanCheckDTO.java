@@ -0,0 +1,22 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of comparing the in-memory set of books on loan with the loan table: books on loan it missed and books it
+ * still held although returned.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OnLoanCheckDTO {
+
+    private long missing;
+    private long stale;
+    private long books;
+    private long durationMillis;
+}
@@ -0,0 +1,21 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size and memory footprint of the in-memory set of books on loan.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OnLoanSetDTO {
+
+    private boolean ready;
+    private long books;
+    private int pages;
+    private long memoryBytes;
+}
@@ -0,0 +1,21 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueLoanDTO {
+
+    private Long id;
+    private String customer;
+    private LocalDate loanDate;
+    private Long isbn;
+    private String title;
+}
@@ -0,0 +1,67 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Page envelope of the counted list endpoints, replacing the serialized {@code PageImpl} and its {@code pageable}
+ * and {@code sort} blocks.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public static <T> PageDTO<T> of(Page<T> page) {
+        return of(page, Function.identity());
+    }
+
+    /**
+     * The content is a view that maps each element as it is serialized, so no list of DTOs is built up front.
+     */
+    public static <S, T> PageDTO<T> of(Page<S> page, Function<? super S, ? extends T> mapper) {
+        return PageDTO.<T>builder()
+                .content(new MappedList<>(page.getContent(), mapper))
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+
+    private static final class MappedList<S, T> extends AbstractList<T> implements RandomAccess {
+
+        private final List<S> source;
+        private final Function<? super S, ? extends T> mapper;
+
+        private MappedList(List<S> source, Function<? super S, ? extends T> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public T get(int index) {
+            return mapper.apply(source.get(index));
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.udemy.library.web.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryStatisticsDTO {
+
+    private String query;
+    private long executionCount;
+    private long executionRowCount;
+    private long executionAvgTime;
+    private long executionMaxTime;
+    private long executionMinTime;
+}
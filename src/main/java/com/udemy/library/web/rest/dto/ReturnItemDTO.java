@@ -0,0 +1,23 @@
+package com.udemy.library.web.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReturnItemDTO {
+
+    public enum Status {
+        RETURNED, ALREADY_RETURNED, NOT_FOUND
+    }
+
+    private Long loanId;
+    private Long isbn;
+    private Status status;
+}
@@ -0,0 +1,24 @@
+package com.udemy.library.web.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SliceDTO<T> {
+
+    private List<T> content;
+    private Integer page;
+    private int size;
+    private boolean hasNext;
+    private String next;
+    private Long approximateTotal;
+}
@@ -1,6 +1,7 @@
 package com.udemy.library.web.rest.errors;
 
 import com.udemy.library.exception.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -8,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ApiErrors {
 
@@ -26,6 +28,14 @@ public class ApiErrors {
         this.errors = Arrays.asList(ex.getReason());
     }
 
+    public ApiErrors(OptimisticLockingFailureException ex) {
+        this.errors = Collections.singletonList("Resource was changed by another request");
+    }
+
+    public ApiErrors(RejectedExecutionException ex) {
+        this.errors = Collections.singletonList("Server busy, try again later");
+    }
+
     public List<String> getErrors() {
         return errors;
     }
@@ -1,6 +1,8 @@
 package com.udemy.library.web.rest.errors;
 
 import com.udemy.library.exception.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -8,8 +10,11 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestControllerAdvice
 public class RestControllerException {
 
@@ -20,6 +25,15 @@ public class RestControllerException {
         return new ApiErrors(bindingResult);
     }
 
+    /**
+     * WebFlux counterpart of {@link MethodArgumentNotValidException}, raised by the reactive variant of the API.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleWebExchangeBindException(WebExchangeBindException ex) {
+        return new ApiErrors(ex.getBindingResult());
+    }
+
     @ExceptionHandler(BusinessException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiErrors handleBusinessException(BusinessException ex) {
@@ -30,4 +44,23 @@ public class RestControllerException {
     public ResponseEntity responseStatusException(ResponseStatusException ex) {
         return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
     }
+
+    /**
+     * An update carried a version that is no longer current.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErrors handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return new ApiErrors(ex);
+    }
+
+    /**
+     * The handler executor of the async execution mode is saturated.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiErrors> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiErrors(ex));
+    }
 }
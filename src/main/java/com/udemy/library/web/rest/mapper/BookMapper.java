@@ -0,0 +1,19 @@
+package com.udemy.library.web.rest.mapper;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.web.rest.dto.BookDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface BookMapper {
+
+    BookDTO toDto(Book book);
+
+    List<BookDTO> toDto(List<Book> books);
+
+    @Mapping(target = "version", ignore = true)
+    Book toEntity(BookDTO bookDTO);
+}
@@ -0,0 +1,34 @@
+package com.udemy.reactivelibrary;
+
+import com.udemy.library.web.rest.errors.RestControllerException;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Non-blocking variant of the library API: WebFlux on Netty with R2DBC repositories, serving the book and loan
+ * endpoints with the same DTOs, validation and {@link RestControllerException} error handling as the servlet stack.
+ * It lives outside {@code com.udemy.library} so neither application scans the other's components.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class})
+@Import(RestControllerException.class)
+public class ReactiveLibraryApplication {
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveLibraryApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties(
+                        "spring.application.name=library-api-reactive",
+                        "server.port=8090",
+                        "spring.r2dbc.url=r2dbc:h2:mem:///library-reactive?options=DB_CLOSE_DELAY=-1");
+    }
+}
@@ -0,0 +1,30 @@
+package com.udemy.reactivelibrary.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of the {@code book} table, mirroring {@code com.udemy.library.domain.Book}.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("book")
+public class BookRow {
+
+    /**
+     * Unique isbn constraint of {@code reactive-schema.sql}.
+     */
+    public static final String ISBN_INDEX = "ux_book_isbn";
+
+    @Id
+    private Long id;
+    private String title;
+    private String author;
+    private Long isbn;
+}
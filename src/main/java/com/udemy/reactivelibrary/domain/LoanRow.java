@@ -0,0 +1,39 @@
+package com.udemy.reactivelibrary.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * R2DBC mapping of the {@code loan} table, mirroring {@code com.udemy.library.domain.Loan}. R2DBC has no relations,
+ * so the book is referenced by id and {@code activeBookId} is maintained by the service instead of an entity
+ * callback.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("loan")
+public class LoanRow {
+
+    /**
+     * Unique active book constraint of {@code reactive-schema.sql}.
+     */
+    public static final String ACTIVE_BOOK_CONSTRAINT = "ux_loan_active_book";
+
+    @Id
+    private Long id;
+    private String customer;
+
+    @Column("id_book")
+    private Long bookId;
+    private LocalDate loanDate;
+    private Boolean returned;
+    private Long activeBookId;
+}
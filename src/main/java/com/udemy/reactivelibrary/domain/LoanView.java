@@ -0,0 +1,23 @@
+package com.udemy.reactivelibrary.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Loan joined with its book, read by the loan search of {@code ReactiveLoanRepository}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanView {
+
+    private Long id;
+    private String customer;
+    private Long bookId;
+    private Long isbn;
+    private String title;
+    private String author;
+}
@@ -0,0 +1,27 @@
+package com.udemy.reactivelibrary.repository;
+
+import com.udemy.reactivelibrary.domain.BookRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveBookRepository extends ReactiveCrudRepository<BookRow, Long> {
+
+    Mono<BookRow> findByIsbn(Long isbn);
+
+    /**
+     * Books matching every non null filter, titles and authors by case insensitive substring like the servlet
+     * stack's {@code Example}. The casts give H2 a type for null parameters.
+     */
+    @Query(" select * from book " +
+            "where (cast(:title as varchar) is null or lower(title) like lower(concat('%', :title, '%'))) " +
+            "and (cast(:author as varchar) is null or lower(author) like lower(concat('%', :author, '%'))) " +
+            "and (cast(:isbn as bigint) is null or isbn = :isbn) " +
+            "order by id limit :limit offset :offset ")
+    Flux<BookRow> findByFilter(@Param("title") String title, @Param("author") String author, @Param("isbn") Long isbn,
+                               @Param("limit") int limit, @Param("offset") long offset);
+}
@@ -0,0 +1,20 @@
+package com.udemy.reactivelibrary.repository;
+
+import com.udemy.reactivelibrary.domain.LoanRow;
+import com.udemy.reactivelibrary.domain.LoanView;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveLoanRepository extends ReactiveCrudRepository<LoanRow, Long> {
+
+    @Query(" select l.id, l.customer, b.id as book_id, b.isbn, b.title, b.author " +
+            "from loan l left join book b on b.id = l.id_book " +
+            "where (b.isbn = cast(:isbn as bigint) or l.customer = cast(:customer as varchar)) " +
+            "order by l.id limit :limit offset :offset ")
+    Flux<LoanView> findByIsbnOrCustomer(@Param("isbn") Long isbn, @Param("customer") String customer,
+                                        @Param("limit") int limit, @Param("offset") long offset);
+}
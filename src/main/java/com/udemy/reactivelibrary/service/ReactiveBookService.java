@@ -0,0 +1,20 @@
+package com.udemy.reactivelibrary.service;
+
+import com.udemy.reactivelibrary.domain.BookRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookService {
+
+    Mono<BookRow> save(BookRow book);
+
+    Mono<BookRow> findById(Long id);
+
+    Mono<BookRow> getBookByIsbn(Long isbn);
+
+    Flux<BookRow> find(BookRow filter, int page, int size);
+
+    Mono<BookRow> update(BookRow book);
+
+    Mono<Void> delete(BookRow book);
+}
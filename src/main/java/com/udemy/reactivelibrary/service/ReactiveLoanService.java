@@ -0,0 +1,17 @@
+package com.udemy.reactivelibrary.service;
+
+import com.udemy.reactivelibrary.domain.LoanRow;
+import com.udemy.reactivelibrary.domain.LoanView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLoanService {
+
+    Mono<LoanRow> save(LoanRow loan);
+
+    Mono<LoanRow> getById(Long id);
+
+    Mono<LoanRow> update(LoanRow loan);
+
+    Flux<LoanView> find(Long isbn, String customer, int page, int size);
+}
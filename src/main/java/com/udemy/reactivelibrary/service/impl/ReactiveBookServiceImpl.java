@@ -0,0 +1,75 @@
+package com.udemy.reactivelibrary.service.impl;
+
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.exception.ConstraintViolations;
+import com.udemy.reactivelibrary.domain.BookRow;
+import com.udemy.reactivelibrary.repository.ReactiveBookRepository;
+import com.udemy.reactivelibrary.service.ReactiveBookService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private final ReactiveBookRepository bookRepository;
+
+    public ReactiveBookServiceImpl(ReactiveBookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Like the servlet stack, a single insert guarded by the unique isbn index.
+     */
+    @Override
+    public Mono<BookRow> save(BookRow book) {
+        return bookRepository.save(book)
+                .onErrorMap(ReactiveBookServiceImpl::duplicateIsbn, ex -> new BusinessException("Isbn já cadastrada"));
+    }
+
+    @Override
+    public Mono<BookRow> findById(Long id) {
+        return bookRepository.findById(id);
+    }
+
+    @Override
+    public Mono<BookRow> getBookByIsbn(Long isbn) {
+        return bookRepository.findByIsbn(isbn);
+    }
+
+    /**
+     * Page {@code page} of the matching books plus one more row, so callers can tell whether a next page exists
+     * without counting.
+     */
+    @Override
+    public Flux<BookRow> find(BookRow filter, int page, int size) {
+        return bookRepository.findByFilter(filter.getTitle(), filter.getAuthor(), filter.getIsbn(), size + 1,
+                (long) page * size);
+    }
+
+    @Override
+    public Mono<BookRow> update(BookRow book) {
+        if (book == null || book.getId() == null) {
+            return Mono.error(new IllegalArgumentException("Book id cant be null."));
+        }
+        return bookRepository.save(book)
+                .onErrorMap(ReactiveBookServiceImpl::duplicateIsbn, ex -> new BusinessException("Isbn já cadastrada"));
+    }
+
+    @Override
+    public Mono<Void> delete(BookRow book) {
+        if (book == null || book.getId() == null) {
+            return Mono.error(new IllegalArgumentException("Book id cant be null."));
+        }
+        return bookRepository.delete(book);
+    }
+
+    /**
+     * Only a clash on the isbn is a business error; any other integrity failure passes through.
+     */
+    private static boolean duplicateIsbn(Throwable ex) {
+        return ex instanceof DataIntegrityViolationException
+                && ConstraintViolations.isViolationOf(ex, BookRow.ISBN_INDEX);
+    }
+}
@@ -0,0 +1,65 @@
+package com.udemy.reactivelibrary.service.impl;
+
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.exception.ConstraintViolations;
+import com.udemy.reactivelibrary.domain.LoanRow;
+import com.udemy.reactivelibrary.domain.LoanView;
+import com.udemy.reactivelibrary.repository.ReactiveLoanRepository;
+import com.udemy.reactivelibrary.service.ReactiveLoanService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveLoanServiceImpl implements ReactiveLoanService {
+
+    private final ReactiveLoanRepository loanRepository;
+
+    public ReactiveLoanServiceImpl(ReactiveLoanRepository loanRepository) {
+        this.loanRepository = loanRepository;
+    }
+
+    /**
+     * Checks the book out with a single insert; the unique active book column rejects a second active loan.
+     */
+    @Override
+    public Mono<LoanRow> save(LoanRow loan) {
+        return loanRepository.save(withActiveBookId(loan))
+                .onErrorMap(ReactiveLoanServiceImpl::isActiveBookViolation,
+                        ex -> new BusinessException("Book already loaned"));
+    }
+
+    @Override
+    public Mono<LoanRow> getById(Long id) {
+        return loanRepository.findById(id);
+    }
+
+    @Override
+    public Mono<LoanRow> update(LoanRow loan) {
+        return loanRepository.save(withActiveBookId(loan))
+                .onErrorMap(ReactiveLoanServiceImpl::isActiveBookViolation,
+                        ex -> new BusinessException("Book already loaned"));
+    }
+
+    @Override
+    public Flux<LoanView> find(Long isbn, String customer, int page, int size) {
+        return loanRepository.findByIsbnOrCustomer(isbn, customer, size + 1, (long) page * size);
+    }
+
+    private LoanRow withActiveBookId(LoanRow loan) {
+        if (loan.getReturned() == null) {
+            loan.setReturned(false);
+        }
+        loan.setActiveBookId(loan.getReturned() ? null : loan.getBookId());
+        return loan;
+    }
+
+    /**
+     * Only a second active loan of the book is a business error; any other integrity failure passes through.
+     */
+    private static boolean isActiveBookViolation(Throwable ex) {
+        return ex instanceof DataIntegrityViolationException
+                && ConstraintViolations.isViolationOf(ex, LoanRow.ACTIVE_BOOK_CONSTRAINT);
+    }
+}
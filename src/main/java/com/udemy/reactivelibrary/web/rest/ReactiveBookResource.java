@@ -0,0 +1,93 @@
+package com.udemy.reactivelibrary.web.rest;
+
+import com.udemy.library.config.LogMarkers;
+import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.SliceDTO;
+import com.udemy.reactivelibrary.domain.BookRow;
+import com.udemy.reactivelibrary.service.ReactiveBookService;
+import com.udemy.reactivelibrary.web.rest.mapper.ReactiveBookMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/books")
+@Log4j2
+public class ReactiveBookResource {
+
+    private final ReactiveBookService bookService;
+    private final ReactiveBookMapper bookMapper;
+
+    public ReactiveBookResource(ReactiveBookService bookService, ReactiveBookMapper bookMapper) {
+        this.bookService = bookService;
+        this.bookMapper = bookMapper;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDTO> create(@RequestBody @Valid BookDTO bookDTO) {
+        log.info("Request to create book: {}", bookDTO);
+
+        return bookService.save(bookMapper.toRow(bookDTO)).map(bookMapper::toDto);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<BookDTO> getById(@PathVariable Long id) {
+        log.info(LogMarkers.GET_BOOK, "Request to get book by id: {}", id);
+
+        return bookService.findById(id)
+                .map(bookMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Count-free page of books, the reactive counterpart of {@code GET /api/books?withTotal=false}.
+     */
+    @GetMapping()
+    public Mono<SliceDTO<BookDTO>> find(@RequestParam(defaultValue = "0") Integer page,
+                                        @RequestParam(defaultValue = "20") Integer size, BookDTO bookDTO) {
+        log.info(LogMarkers.FIND_BOOKS, "Request to find books:");
+
+        return bookService.find(bookMapper.toRow(bookDTO), page, size)
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<BookRow> content = hasNext ? rows.subList(0, size) : rows;
+                    return SliceDTO.<BookDTO>builder()
+                            .content(bookMapper.toDto(content))
+                            .page(page)
+                            .size(size)
+                            .hasNext(hasNext)
+                            .build();
+                });
+    }
+
+    @PutMapping("/{id}")
+    public Mono<BookDTO> update(@RequestBody @Valid BookDTO bookDTO, @PathVariable Long id) {
+        log.info("Request to update book: {}", bookDTO);
+
+        return bookService.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(book -> bookService.update(book.toBuilder()
+                        .title(bookDTO.getTitle())
+                        .author(bookDTO.getAuthor())
+                        .isbn(bookDTO.getIsbn())
+                        .build()))
+                .map(bookMapper::toDto);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteById(@PathVariable Long id) {
+        log.info("Request to delete book by id: {}", id);
+
+        return bookService.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                .flatMap(bookService::delete);
+    }
+}
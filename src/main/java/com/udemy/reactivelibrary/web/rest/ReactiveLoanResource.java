@@ -0,0 +1,79 @@
+package com.udemy.reactivelibrary.web.rest;
+
+import com.udemy.library.config.LogMarkers;
+import com.udemy.library.web.rest.dto.LoanDTO;
+import com.udemy.library.web.rest.dto.LoanFilterDTO;
+import com.udemy.library.web.rest.dto.ReturnedLoanDTO;
+import com.udemy.library.web.rest.dto.SliceDTO;
+import com.udemy.reactivelibrary.domain.LoanRow;
+import com.udemy.reactivelibrary.service.ReactiveBookService;
+import com.udemy.reactivelibrary.service.ReactiveLoanService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/loans")
+@RequiredArgsConstructor
+@Log4j2
+public class ReactiveLoanResource {
+
+    private final ReactiveLoanService loanService;
+    private final ReactiveBookService bookService;
+
+    /**
+     * Count-free page of loans, the reactive counterpart of {@code GET /api/loans?withTotal=false}.
+     */
+    @GetMapping()
+    public Mono<SliceDTO<LoanDTO>> find(@RequestParam(defaultValue = "0") Integer page,
+                                        @RequestParam(defaultValue = "20") Integer size, LoanFilterDTO loanFilterDTO) {
+        log.info(LogMarkers.FIND_LOANS, "Request to find loans:");
+
+        return loanService.find(loanFilterDTO.getIsbn(), loanFilterDTO.getCustomer(), page, size)
+                .map(view -> new LoanDTO(view.getId(), view.getCustomer(), view.getBookId(), view.getIsbn(),
+                        view.getTitle(), view.getAuthor()))
+                .collectList()
+                .map(loans -> {
+                    boolean hasNext = loans.size() > size;
+                    List<LoanDTO> content = hasNext ? loans.subList(0, size) : loans;
+                    return SliceDTO.<LoanDTO>builder()
+                            .content(content)
+                            .page(page)
+                            .size(size)
+                            .hasNext(hasNext)
+                            .build();
+                });
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Long> create(@RequestBody @Valid LoanDTO loanDTO) {
+        return bookService.getBookByIsbn(loanDTO.getIsbn())
+                .switchIfEmpty(Mono.error(() ->
+                        new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn")))
+                .flatMap(book -> loanService.save(LoanRow.builder()
+                        .bookId(book.getId())
+                        .loanDate(LocalDate.now())
+                        .customer(loanDTO.getCustomer())
+                        .build()))
+                .map(LoanRow::getId);
+    }
+
+    @PatchMapping("/{bookId}")
+    public Mono<Void> returnBook(@RequestBody @Valid ReturnedLoanDTO returnedLoanDTO, @PathVariable Long bookId) {
+        return loanService.getById(bookId)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Loan not found")))
+                .flatMap(loan -> {
+                    loan.setReturned(returnedLoanDTO.getReturned());
+                    return loanService.update(loan);
+                })
+                .then();
+    }
+}
@@ -0,0 +1,17 @@
+package com.udemy.reactivelibrary.web.rest.mapper;
+
+import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.reactivelibrary.domain.BookRow;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ReactiveBookMapper {
+
+    BookDTO toDto(BookRow book);
+
+    List<BookDTO> toDto(List<BookRow> books);
+
+    BookRow toRow(BookDTO bookDTO);
+}
@@ -0,0 +1,19 @@
+create table if not exists book (
+    id bigint auto_increment primary key,
+    title varchar(255),
+    author varchar(255),
+    isbn bigint,
+    constraint ux_book_isbn unique (isbn)
+);
+
+create table if not exists loan (
+    id bigint auto_increment primary key,
+    customer varchar(255),
+    id_book bigint references book (id),
+    loan_date date,
+    returned boolean,
+    active_book_id bigint,
+    constraint ux_loan_active_book unique (active_book_id)
+);
+
+create index if not exists ix_loan_returned_loan_date on loan (returned, loan_date, id);
@@ -0,0 +1,72 @@
+package com.udemy.library.config;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+public class CallMetricsAspectTest {
+
+    SimpleMeterRegistry registry;
+    BookService target;
+    BookService bookService;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = Mockito.mock(BookService.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new CallMetricsAspect(registry));
+        bookService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Should time service calls tagged with found and not found outcomes")
+    public void foundAndNotFoundTest() {
+        given(target.findById(1L)).willReturn(Optional.of(Book.builder().id(1L).build()));
+        given(target.findById(2L)).willReturn(Optional.empty());
+
+        bookService.findById(1L);
+        bookService.findById(1L);
+        bookService.findById(2L);
+
+        assertThat(registry.get(CallMetricsAspect.SERVICE_CALLS)
+                .tags("type", "BookService", "method", "findById", "outcome", "found").timer().count()).isEqualTo(2);
+        assertThat(registry.get(CallMetricsAspect.SERVICE_CALLS)
+                .tags("type", "BookService", "method", "findById", "outcome", "not_found").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should time and count business errors")
+    public void businessErrorTest() {
+        Book book = Book.builder().isbn(123L).build();
+        given(target.save(book)).willThrow(new BusinessException("Isbn já cadastrada"));
+
+        assertThatThrownBy(() -> bookService.save(book)).isInstanceOf(BusinessException.class);
+
+        assertThat(registry.get(CallMetricsAspect.SERVICE_CALLS)
+                .tags("method", "save", "outcome", "business_error").timer().count()).isEqualTo(1);
+        assertThat(registry.get(CallMetricsAspect.BUSINESS_ERRORS)
+                .tags("type", "BookService", "method", "save").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count void calls as found")
+    public void voidCallTest() {
+        bookService.delete(Book.builder().id(1L).build());
+
+        assertThat(registry.get(CallMetricsAspect.SERVICE_CALLS)
+                .tags("method", "delete", "outcome", "found").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.udemy.library.config;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.web.rest.dto.HibernateStatisticsDTO;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "library.slow-query.threshold=0ms")
+@Import(HibernateStatisticsConfig.class)
+public class HibernateStatisticsEndpointTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    HibernateStatisticsEndpoint endpoint;
+
+    @BeforeEach
+    public void setUp() {
+        endpoint = new HibernateStatisticsEndpoint(entityManagerFactory);
+        endpoint.clear();
+    }
+
+    @Test
+    @DisplayName("Should install the slow query statistics")
+    public void slowQueryStatisticsTest() {
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getStatistics())
+                .isInstanceOf(SlowQueryStatistics.class);
+    }
+
+    @Test
+    @DisplayName("Should expose query counts, entity counts and the slowest queries")
+    public void statisticsTest() {
+        testEntityManager.persistAndFlush(Book.builder().title("As aventuras").author("Fulano").isbn(123L).build());
+        testEntityManager.getEntityManager()
+                .createQuery("select b from Book b where b.isbn = :isbn", Book.class)
+                .setParameter("isbn", 123L)
+                .getResultList();
+
+        HibernateStatisticsDTO statistics = endpoint.statistics(null);
+
+        assertThat(statistics.isEnabled()).isTrue();
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getSlowestQueries()).hasSize(1);
+        assertThat(statistics.getSlowestQueries().get(0).getQuery()).contains("b.isbn = :isbn");
+        assertThat(statistics.getSlowestQueries().get(0).getExecutionRowCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reset the statistics")
+    public void clearTest() {
+        testEntityManager.getEntityManager().createQuery("select b from Book b", Book.class).getResultList();
+
+        endpoint.clear();
+
+        assertThat(endpoint.statistics(null).getQueryExecutionCount()).isZero();
+    }
+}
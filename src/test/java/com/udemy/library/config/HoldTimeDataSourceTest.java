@@ -0,0 +1,70 @@
+package com.udemy.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HoldTimeDataSourceTest {
+
+    private MockClock clock;
+    private MeterRegistry registry;
+    private Connection target;
+    private HoldTimeDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        clock = new MockClock();
+        registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        target = Mockito.mock(Connection.class);
+        DataSource pool = Mockito.mock(DataSource.class);
+        Mockito.when(pool.getConnection()).thenReturn(target);
+        dataSource = new HoldTimeDataSource(pool, () -> registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestEndpoint.set(null);
+    }
+
+    @Test
+    @DisplayName("Should record the hold time under the endpoint that acquired the connection")
+    public void holdTimeTest() throws Exception {
+        RequestEndpoint.set("GET /api/loans");
+        Connection connection = dataSource.getConnection();
+        RequestEndpoint.set(null);
+        clock.add(Duration.ofMillis(40));
+        connection.close();
+        connection.close();
+
+        Timer timer = registry.get(HoldTimeDataSource.CONNECTION_HOLD).tag("endpoint", "GET /api/loans").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40);
+        Mockito.verify(target, Mockito.times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Should tag connections acquired outside a request with none")
+    public void noEndpointTest() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.prepareStatement("select 1");
+        connection.close();
+
+        assertThat(registry.get(HoldTimeDataSource.CONNECTION_HOLD).tag("endpoint", RequestEndpoint.NONE).timer()
+                .count()).isEqualTo(1);
+        Mockito.verify(target).prepareStatement("select 1");
+    }
+}
@@ -0,0 +1,42 @@
+package com.udemy.library.config;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SamplingFilterTest {
+
+    @Test
+    @DisplayName("Should deny every marked event at rate zero and let unmarked events through")
+    public void rateZeroTest() {
+        SamplingFilter filter = SamplingFilter.createFilter("GET_BOOK", 0.0);
+
+        assertThat(filter.filter(null, Level.INFO, LogMarkers.GET_BOOK, "Request to find book by id: {}", 1L))
+                .isEqualTo(Filter.Result.DENY);
+        assertThat(filter.filter(null, Level.INFO, LogMarkers.FIND_BOOKS, "Request to find book:"))
+                .isEqualTo(Filter.Result.NEUTRAL);
+        assertThat(filter.filter(null, Level.INFO, null, "Request to save book: {}", "book"))
+                .isEqualTo(Filter.Result.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Should keep every marked event at rate one")
+    public void rateOneTest() {
+        SamplingFilter filter = SamplingFilter.createFilter("GET_BOOK", 1.0);
+
+        assertThat(filter.filter(null, Level.INFO, LogMarkers.GET_BOOK, "Request to find book by id: {}", 1L))
+                .isEqualTo(Filter.Result.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Should sample children of the configured marker")
+    public void childMarkerTest() {
+        SamplingFilter filter = SamplingFilter.createFilter("SAMPLED", 0.0);
+
+        assertThat(filter.filter(null, Level.INFO, LogMarkers.FIND_LOANS, "Request to find loans:"))
+                .isEqualTo(Filter.Result.DENY);
+    }
+}
@@ -1,6 +1,7 @@
 package com.udemy.library.repository;
 
 import com.udemy.library.domain.Book;
+import com.udemy.library.exception.ConstraintViolations;
 import lombok.extern.log4j.Log4j2;
 import org.assertj.core.api.AssertionsForClassTypes;
 import org.junit.jupiter.api.DisplayName;
@@ -9,11 +10,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 @ExtendWith(SpringExtension.class)
@@ -32,7 +37,7 @@ public class BookRepositoryTest {
     @DisplayName("Should return true when search for a book by isbn that already exist")
     public void returnTrueWhenIsbnExistsTest() {
 
-        testEntityManager.persist(Book.builder().isbn(123L).build());
+        testEntityManager.persist(Book.builder().title("o carrasco").author("draven").isbn(123L).build());
 
         Boolean resposta = bookRepository.existsByIsbn(123L);
 
@@ -86,6 +91,36 @@ public class BookRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("Should reject a second book with the same isbn")
+    public void rejectDuplicateIsbnTest() {
+
+        testEntityManager.persist(Book.builder().title("o carrasco").author("draven").isbn(1233L).build());
+
+        Book duplicated = Book.builder().title("outro").author("outro").isbn(1233L).build();
+
+        assertThatThrownBy(() -> bookRepository.saveAndFlush(duplicated))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .matches(ex -> ConstraintViolations.isViolationOf(ex, Book.ISBN_INDEX));
+    }
+
+    @Test
+    @DisplayName("Should walk books sorted by title with a keyset")
+    public void findAfterTest() {
+
+        Book first = testEntityManager.persist(Book.builder().title("a").author("x").isbn(1L).build());
+        Book second = testEntityManager.persist(Book.builder().title("b").author("x").isbn(2L).build());
+        Book third = testEntityManager.persist(Book.builder().title("b").author("x").isbn(3L).build());
+
+        Slice<Book> firstSlice = bookRepository.findAfter(Example.of(new Book()), "title", null, null, 2);
+        Slice<Book> secondSlice = bookRepository.findAfter(Example.of(new Book()), "title", "b", second.getId(), 2);
+
+        assertThat(firstSlice.getContent()).containsExactly(first, second);
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(secondSlice.getContent()).containsExactly(third);
+        assertThat(secondSlice.hasNext()).isFalse();
+    }
+
     @Test
     @DisplayName("Should delete book")
     public void deleteBookTest() {
@@ -110,4 +145,18 @@ public class BookRepositoryTest {
 
     }
 
+    @Test
+    @DisplayName("Should increment the version on update and read it without loading the book")
+    public void findVersionByIdTest() {
+
+        Book book = testEntityManager.persistFlushFind(Book.builder().title("o carrasco").author("draven").isbn(1233L).build());
+        book.setTitle("o carrasco 2");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Optional<Long> version = bookRepository.findVersionById(book.getId());
+
+        assertThat(version).contains(1L);
+        assertThat(bookRepository.findVersionById(book.getId() + 1000)).isEmpty();
+    }
 }
@@ -1,14 +1,23 @@
 package com.udemy.library.repository;
 
 import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
 import com.udemy.library.domain.Loan;
+import com.udemy.library.exception.ConstraintViolations;
+import com.udemy.library.web.rest.dto.LoanDTO;
+import com.udemy.library.web.rest.dto.LoanExportDTO;
+import com.udemy.library.web.rest.dto.LoanStateDTO;
+import com.udemy.library.web.rest.dto.OverdueLoanDTO;
 import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
@@ -16,13 +25,20 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Log4j2
 public class LoanRepositoryTest {
 
@@ -32,28 +48,62 @@ public class LoanRepositoryTest {
     @Autowired
     LoanRepository loanRepository;
 
+    Map<String, Customer> customers = new HashMap<>();
+
+    private Customer customer(String name) {
+        return customers.computeIfAbsent(name, key -> testEntityManager.persist(Customer.builder().name(key).build()));
+    }
+
     @Test
     @DisplayName("Should return true when search for a loan")
     public void returnTrueWhenIsbnExistsTest() {
         Book book = Book.builder().author("vitu").title("desgraça").isbn(123231L).build();
 
-        Loan loan = Loan.builder().customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Loan loan = Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).build();
 
         testEntityManager.persist(book);
 
         testEntityManager.persist(loan);
 
-        Boolean result = loanRepository.existsByBookAndNotReturned(book);
+        Boolean result = loanRepository.existsByActiveBookId(book.getId());
 
         assertThat(result).isTrue();
     }
 
+    @Test
+    @DisplayName("Should not count active loans of other books")
+    public void returnFalseWhenOnlyOtherBookIsLoanedTest() {
+        Book book = testEntityManager.persist(Book.builder().author("vitu").title("desgraça").isbn(1L).build());
+        Book other = testEntityManager.persist(Book.builder().author("vitu").title("outro").isbn(2L).build());
+
+        testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).returned(true).build());
+        testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(other).loanDate(LocalDate.now()).returned(false).build());
+
+        assertThat(loanRepository.existsByActiveBookId(book.getId())).isFalse();
+        assertThat(loanRepository.existsByActiveBookId(other.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject a second active loan of the same book")
+    public void rejectSecondActiveLoanTest() {
+        Book book = testEntityManager.persist(Book.builder().author("vitu").title("desgraça").isbn(1L).build());
+
+        testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).returned(true).build());
+        loanRepository.saveAndFlush(Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).build());
+
+        Loan second = Loan.builder().customer(customer("outro")).book(book).loanDate(LocalDate.now()).build();
+
+        assertThatThrownBy(() -> loanRepository.saveAndFlush(second))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .matches(ex -> ConstraintViolations.isViolationOf(ex, Loan.ACTIVE_BOOK_CONSTRAINT));
+    }
+
     @Test
     @DisplayName("Should return loan by id")
     public void returnLoanByIdTest() {
         Book book = Book.builder().author("vitu").title("desgraça").isbn(123231L).build();
 
-        Loan loan = Loan.builder().customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Loan loan = Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).build();
 
         testEntityManager.persist(book);
 
@@ -68,22 +118,86 @@ public class LoanRepositoryTest {
     }
 
     @Test
-    @DisplayName("Should return loan using filters")
-    public void returnLoanUsingFilterTest() {
-        Book book = Book.builder().author("vitu").title("desgraça").isbn(123231L).build();
+    @DisplayName("Should search a page of loans with a single statement and no entity loads")
+    public void searchLoansWithSingleStatementTest() {
+        for (long i = 1; i <= 5; i++) {
+            Book book = testEntityManager.persist(Book.builder().author("vitu").title("livro " + i).isbn(i).build());
+            testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
 
-        Loan loan = Loan.builder().customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
 
-        testEntityManager.persist(book);
+        Page<LoanDTO> result = loanRepository.findDtoByIsbnOrCustomer(null, customer("vitor").getId(), "vitor", PageRequest.of(0, 10));
 
-        testEntityManager.persist(loan);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent().get(0).getBook().getTitle()).startsWith("livro");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(0);
+
+        statistics.clear();
 
-        Page<Loan> result = loanRepository.findByBook_IsbnOrCustomer(123231L,"vitor", PageRequest.of(0, 10));
+        Page<LoanDTO> fullPage = loanRepository.findDtoByIsbnOrCustomer(null, customer("vitor").getId(), "vitor", PageRequest.of(0, 2));
 
-        assertThat(result.getTotalElements()).isEqualTo(1);
-        assertThat(result.getContent()).isEqualTo(Arrays.asList(loan));
-        assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
-        assertThat(result.getPageable().getPageSize()).isEqualTo(10);
+        assertThat(fullPage.getTotalElements()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).as("page query plus count query").isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should find and name loans whose customer is not migrated yet")
+    public void findUnmigratedCustomerTest() {
+        Book book = testEntityManager.persist(Book.builder().author("vitu").title("desgraça").isbn(1L).build());
+        Loan migrated = testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book)
+                .loanDate(LocalDate.now().minusDays(30)).returned(true).build());
+        Loan legacy = testEntityManager.persist(Loan.builder().legacyCustomer("vitor").book(book)
+                .loanDate(LocalDate.now().minusDays(10)).build());
+
+        Page<LoanDTO> result = loanRepository.findDtoByIsbnOrCustomer(null, customer("vitor").getId(), "vitor",
+                PageRequest.of(0, 10));
+        long count = loanRepository.countByIsbnOrCustomer(null, null, "vitor");
+        List<OverdueLoanDTO> overdue = loanRepository.findOverdueAfter(LocalDate.now(), LocalDate.now().minusYears(1),
+                0L, PageRequest.of(0, 10));
+        List<LoanExportDTO> exported;
+        try (Stream<LoanExportDTO> stream = loanRepository.streamAllForExport()) {
+            exported = stream.collect(Collectors.toList());
+        }
+
+        assertThat(result.getContent()).extracting(LoanDTO::getId, LoanDTO::getCustomer)
+                .containsExactlyInAnyOrder(tuple(migrated.getId(), "vitor"), tuple(legacy.getId(), "vitor"));
+        assertThat(count).isEqualTo(1);
+        assertThat(overdue).extracting(OverdueLoanDTO::getCustomer).containsExactly("vitor");
+        assertThat(exported).extracting(LoanExportDTO::getCustomer).containsExactly("vitor", "vitor");
+    }
+
+    @Test
+    @DisplayName("Should read the latest loan of each isbn and return loans with one update")
+    public void returnLoansInBatchTest() {
+        Book loaned = testEntityManager.persist(Book.builder().author("vitu").title("emprestado").isbn(1L).build());
+        Book returned = testEntityManager.persist(Book.builder().author("vitu").title("devolvido").isbn(2L).build());
+        testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(loaned).loanDate(LocalDate.now()).returned(true).build());
+        Loan active = testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(loaned).loanDate(LocalDate.now()).build());
+        Loan past = testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(returned).loanDate(LocalDate.now()).returned(true).build());
+
+        List<LoanStateDTO> states = loanRepository.findLatestStatesByIsbnIn(Arrays.asList(1L, 2L, 3L));
+
+        org.assertj.core.api.Assertions.assertThat(states)
+                .extracting(LoanStateDTO::getId, LoanStateDTO::getIsbn, LoanStateDTO::getReturned)
+                .containsExactlyInAnyOrder(tuple(active.getId(), 1L, false), tuple(past.getId(), 2L, true));
+        org.assertj.core.api.Assertions.assertThat(loanRepository.lockActiveIdsByIdIn(Arrays.asList(active.getId(), past.getId())))
+                .containsExactly(active.getId());
+
+        int updated = loanRepository.returnAllById(Arrays.asList(active.getId(), past.getId()));
+        testEntityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        Loan reloaded = testEntityManager.find(Loan.class, active.getId());
+        assertThat(reloaded.getReturned()).isTrue();
+        assertThat(reloaded.getActiveBookId()).isNull();
+        assertThat(loanRepository.existsByActiveBookId(loaned.getId())).isFalse();
     }
 
 }
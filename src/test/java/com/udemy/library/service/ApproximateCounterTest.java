@@ -0,0 +1,44 @@
+package com.udemy.library.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApproximateCounterTest {
+
+    @Test
+    @DisplayName("Should reuse a count until it expires")
+    public void reuseCountUntilExpiredTest() {
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L, 59_999L, 60_000L);
+        AtomicLong queries = new AtomicLong();
+
+        ApproximateCounter<String> counter = new ApproximateCounter<>(Duration.ofMinutes(1), 10, clock);
+
+        assertThat(counter.count("vitor", queries::incrementAndGet)).isEqualTo(1L);
+        assertThat(counter.count("vitor", queries::incrementAndGet)).isEqualTo(1L);
+        assertThat(counter.count("vitor", queries::incrementAndGet)).isEqualTo(2L);
+        assertThat(queries.get()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should keep counts per key")
+    public void countPerKeyTest() {
+        Clock clock = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+        ApproximateCounter<String> counter = new ApproximateCounter<>(Duration.ofMinutes(1), 10, clock);
+
+        assertThat(counter.count("a", () -> 1L)).isEqualTo(1L);
+        assertThat(counter.count("b", () -> 2L)).isEqualTo(2L);
+        assertThat(counter.count("a", () -> 3L)).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,102 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.impl.BookAvailabilityServiceImpl;
+import com.udemy.library.web.rest.dto.OnLoanCheckDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class BookAvailabilityServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    BookAvailabilityService bookAvailabilityService;
+
+    Map<String, Customer> customers = new HashMap<>();
+
+    private Customer customer(String name) {
+        return customers.computeIfAbsent(name, key -> testEntityManager.persist(Customer.builder().name(key).build()));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        this.bookAvailabilityService = new BookAvailabilityServiceImpl(loanRepository, transactionManager);
+    }
+
+    private Book loanedBook(long isbn, boolean returned) {
+        Book book = testEntityManager.persist(Book.builder().title("livro " + isbn).author("vitu").isbn(isbn).build());
+        testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.now()).returned(returned).build());
+        return book;
+    }
+
+    @Test
+    @DisplayName("Should answer from the database until the set is loaded, then from the set")
+    public void loadTest() {
+        Book onLoan = loanedBook(1L, false);
+        Book returned = loanedBook(2L, true);
+        testEntityManager.flush();
+
+        assertThat(bookAvailabilityService.usage().isReady()).isFalse();
+        assertThat(bookAvailabilityService.isOnLoan(onLoan.getId())).isTrue();
+
+        OnLoanCheckDTO check = bookAvailabilityService.check();
+
+        assertThat(check.getBooks()).isEqualTo(1);
+        assertThat(bookAvailabilityService.usage().isReady()).isTrue();
+        assertThat(bookAvailabilityService.usage().getMemoryBytes()).isPositive();
+        assertThat(bookAvailabilityService.isOnLoan(onLoan.getId())).isTrue();
+        assertThat(bookAvailabilityService.isOnLoan(returned.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should report the books the set had missed or kept after loans changed through SQL")
+    public void checkTest() {
+        Book onLoan = loanedBook(1L, false);
+        Book returned = loanedBook(2L, true);
+        testEntityManager.flush();
+        bookAvailabilityService.check();
+
+        testEntityManager.getEntityManager()
+                .createQuery("update Loan l set l.returned = true, l.activeBookId = null where l.book = :book")
+                .setParameter("book", onLoan)
+                .executeUpdate();
+        testEntityManager.getEntityManager()
+                .createQuery("update Loan l set l.returned = false, l.activeBookId = :bookId where l.book = :book")
+                .setParameter("bookId", returned.getId())
+                .setParameter("book", returned)
+                .executeUpdate();
+
+        OnLoanCheckDTO check = bookAvailabilityService.check();
+
+        assertThat(check.getMissing()).isEqualTo(1);
+        assertThat(check.getStale()).isEqualTo(1);
+        assertThat(bookAvailabilityService.isOnLoan(returned.getId())).isTrue();
+    }
+}
@@ -0,0 +1,45 @@
+package com.udemy.library.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookIdBitmapTest {
+
+    @Test
+    @DisplayName("Should add and remove ids, counting only real changes")
+    public void setTest() {
+        BookIdBitmap bitmap = new BookIdBitmap();
+
+        assertThat(bitmap.set(5L, true)).isTrue();
+        assertThat(bitmap.set(5L, true)).isFalse();
+        assertThat(bitmap.set(BookIdBitmap.PAGE_BITS + 63L, true)).isTrue();
+        assertThat(bitmap.set(7L, false)).isFalse();
+
+        assertThat(bitmap.contains(5L)).isTrue();
+        assertThat(bitmap.contains(6L)).isFalse();
+        assertThat(bitmap.contains(BookIdBitmap.PAGE_BITS + 63L)).isTrue();
+        assertThat(bitmap.size()).isEqualTo(2);
+        assertThat(bitmap.pages()).isEqualTo(2);
+        assertThat(bitmap.memoryBytes()).isEqualTo(2L * BookIdBitmap.PAGE_BITS / 8);
+
+        assertThat(bitmap.set(5L, false)).isTrue();
+        assertThat(bitmap.contains(5L)).isFalse();
+        assertThat(bitmap.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count the ids present in only one of two bitmaps")
+    public void differenceTest() {
+        BookIdBitmap memory = new BookIdBitmap();
+        memory.set(1L, true);
+        memory.set(2L, true);
+        BookIdBitmap database = new BookIdBitmap();
+        database.set(2L, true);
+        database.set(3L, true);
+        database.set(3L * BookIdBitmap.PAGE_BITS, true);
+
+        assertThat(memory.difference(database)).containsExactly(1L, 2L);
+    }
+}
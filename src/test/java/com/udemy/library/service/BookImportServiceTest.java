@@ -0,0 +1,143 @@
+package com.udemy.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.library.domain.Book;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.BookTokenRepository;
+import com.udemy.library.service.impl.BookImportServiceImpl;
+import com.udemy.library.service.impl.BookSearchServiceImpl;
+import com.udemy.library.web.rest.dto.BulkImportResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class BookImportServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookTokenRepository bookTokenRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager entityManager;
+
+    BookImportService bookImportService;
+
+    @BeforeEach
+    public void setUp() {
+        this.bookImportService = importService(bookRepository);
+    }
+
+    private BookImportService importService(BookRepository repository) {
+        return new BookImportServiceImpl(repository,
+                new BookSearchServiceImpl(bookTokenRepository, bookRepository, entityManager), entityManager,
+                transactionManager, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should import valid ndjson lines and report the others")
+    public void importNdjsonTest() {
+        String body = "{\"title\":\"o carrasco\",\"author\":\"draven\",\"isbn\":1}\n" +
+                "\n" +
+                "{\"title\":\"\",\"author\":\"draven\",\"isbn\":2}\n" +
+                "{not json\n" +
+                "{\"title\":\"outro\",\"author\":\"draven\",\"isbn\":1}\n";
+
+        BulkImportResultDTO result = bookImportService.importBooks(new StringReader(body), LineFormat.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting("line").containsExactly(3L, 4L, 5L);
+        assertThat(result.getErrors().get(0).getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getErrors().get(0)).startsWith("title: ");
+        assertThat(result.getErrors().get(2).getErrors()).containsExactly("Isbn já cadastrada");
+        assertThat(bookRepository.findByIsbn(1L)).map(Book::getTitle).hasValue("o carrasco");
+        assertThat(bookTokenRepository.findAll()).extracting("token").containsExactlyInAnyOrder("o", "carrasco", "draven");
+    }
+
+    @Test
+    @DisplayName("Should import csv lines skipping isbns that already exist")
+    public void importCsvTest() {
+        testEntityManager.persist(Book.builder().title("existente").author("vitu").isbn(2L).build());
+
+        String body = "title,author,isbn\n" +
+                "\"Dom Casmurro, o livro\",Machado,1\n" +
+                "Memorias,Machado,2\n" +
+                "Helena,Machado,abc\n";
+
+        BulkImportResultDTO result = bookImportService.importBooks(new StringReader(body), LineFormat.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting("line").containsExactly(3L, 4L);
+        assertThat(result.getErrors().get(0).getErrors()).isEqualTo(Collections.singletonList("Isbn já cadastrada"));
+        assertThat(result.getErrors().get(1).getErrors()).isEqualTo(Arrays.asList("Malformed line"));
+        assertThat(bookRepository.findByIsbn(1L)).map(Book::getTitle).hasValue("Dom Casmurro, o livro");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should fall back to single inserts when an isbn is taken between the check and the insert")
+    public void isbnTakenAfterCheckTest() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BookRepository racingRepository = Mockito.mock(BookRepository.class,
+                AdditionalAnswers.delegatesTo(bookRepository));
+        Mockito.doAnswer(invocation -> {
+            List<Long> existing = bookRepository.findExistingIsbns(invocation.getArgument(0));
+            transactionTemplate.executeWithoutResult(status ->
+                    bookRepository.save(Book.builder().title("concorrente").author("outro").isbn(2L).build()));
+            return existing;
+        }).when(racingRepository).findExistingIsbns(Mockito.anyCollection());
+        String body = "{\"title\":\"um\",\"author\":\"draven\",\"isbn\":1}\n" +
+                "{\"title\":\"dois\",\"author\":\"draven\",\"isbn\":2}\n" +
+                "{\"title\":\"tres\",\"author\":\"draven\",\"isbn\":3}\n";
+
+        try {
+            BulkImportResultDTO result = importService(racingRepository)
+                    .importBooks(new StringReader(body), LineFormat.NDJSON);
+
+            assertThat(result.getImported()).isEqualTo(2);
+            assertThat(result.getRejected()).isEqualTo(1);
+            assertThat(result.getErrors()).extracting("line").containsExactly(2L);
+            assertThat(result.getErrors().get(0).getErrors()).containsExactly("Isbn já cadastrada");
+            assertThat(bookRepository.findByIsbn(2L)).map(Book::getTitle).hasValue("concorrente");
+            assertThat(bookRepository.findByIsbn(3L)).map(Book::getTitle).hasValue("tres");
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookTokenRepository.deleteAllInBatch();
+                bookRepository.deleteAllInBatch();
+            });
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.BookTokenRepository;
+import com.udemy.library.service.impl.BookSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class BookSearchServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookTokenRepository bookTokenRepository;
+
+    BookSearchService bookSearchService;
+
+    @BeforeEach
+    public void setUp() {
+        this.bookSearchService = new BookSearchServiceImpl(bookTokenRepository, bookRepository,
+                testEntityManager.getEntityManager());
+    }
+
+    private Book persist(String title, String author, long isbn) {
+        Book book = bookRepository.save(Book.builder().title(title).author(author).isbn(isbn).build());
+        bookSearchService.index(Arrays.asList(book));
+        return book;
+    }
+
+    @Test
+    @DisplayName("Should match tokens ignoring case and accents")
+    public void searchIgnoringCaseAndAccentsTest() {
+        Book book = persist("Memórias Póstumas de Brás Cubas", "Machado de Assis", 1L);
+        persist("O Cortiço", "Aluísio Azevedo", 2L);
+
+        Slice<Book> result = bookSearchService.search("MEMORIAS bras", 0, 10);
+
+        assertThat(result.getContent()).containsExactly(book);
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should only return books containing every token, title matches first")
+    public void searchRankedByRelevanceTest() {
+        Book byAuthor = persist("Dom Casmurro", "Machado de Assis", 1L);
+        Book byTitle = persist("Machado, uma biografia", "Jean-Michel Massa", 2L);
+        persist("Machado de guerra", "Outro Autor", 3L);
+
+        Slice<Book> result = bookSearchService.search("machado", 0, 10);
+        assertThat(result.getContent()).hasSize(3);
+        assertThat(result.getContent().get(2)).isEqualTo(byAuthor);
+
+        assertThat(bookSearchService.search("machado massa", 0, 10).getContent()).containsExactly(byTitle);
+        assertThat(bookSearchService.search("machado inexistente", 0, 10).getContent()).isEmpty();
+        assertThat(bookSearchService.search(" ,. ", 0, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page through the matches without counting them")
+    public void searchPagesTest() {
+        Book first = persist("Livro um", "autor", 1L);
+        Book second = persist("Livro dois", "autor", 2L);
+
+        Slice<Book> page = bookSearchService.search("livro", 0, 1);
+        assertThat(page.getContent()).containsExactly(first);
+        assertThat(page.hasNext()).isTrue();
+
+        page = bookSearchService.search("livro", 1, 1);
+        assertThat(page.getContent()).containsExactly(second);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should follow updates and deletes of the book")
+    public void reindexAndRemoveTest() {
+        Book book = persist("O carrasco", "draven", 1L);
+
+        book.setTitle("O algoz");
+        bookSearchService.reindex(bookRepository.save(book));
+
+        assertThat(bookSearchService.search("carrasco", 0, 10).getContent()).isEmpty();
+        assertThat(bookSearchService.search("algoz", 0, 10).getContent()).containsExactly(book);
+
+        bookSearchService.remove(book.getId());
+        bookRepository.delete(book);
+
+        assertThat(bookSearchService.search("algoz", 0, 10).getContent()).isEmpty();
+        assertThat(bookTokenRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index from the book table")
+    public void rebuildTest() {
+        Book book = bookRepository.save(Book.builder().title("Vidas Secas").author("Graciliano Ramos").isbn(1L).build());
+
+        assertThat(bookSearchService.search("secas", 0, 10).getContent()).isEmpty();
+
+        assertThat(bookSearchService.rebuild()).isEqualTo(1);
+
+        assertThat(bookSearchService.search("graciliano secas", 0, 10).getContent())
+                .extracting(Book::getId).containsExactly(book.getId());
+    }
+}
@@ -12,6 +12,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -20,9 +24,12 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -36,9 +43,12 @@ public class BookServiceTest {
     @MockBean
     BookRepository bookRepository;
 
+    @MockBean
+    BookSearchService bookSearchService;
+
     @BeforeEach
     public void setUp() {
-        this.bookService = new BookServiceImpl(bookRepository);
+        this.bookService = new BookServiceImpl(bookRepository, bookSearchService, new NoOpCacheManager());
     }
 
     public Book createValidBook() {
@@ -51,7 +61,7 @@ public class BookServiceTest {
 
         Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
 
-        when(bookRepository.save(Mockito.any(Book.class))).thenReturn(book);
+        when(bookRepository.saveAndFlush(Mockito.any(Book.class))).thenReturn(book);
 
         Book savedBook = bookService.save(book);
 
@@ -59,6 +69,7 @@ public class BookServiceTest {
         assertThat(savedBook.getAuthor()).isEqualTo(book.getAuthor());
         assertThat(savedBook.getTitle()).isEqualTo(book.getTitle());
         assertThat(savedBook.getIsbn()).isEqualTo(book.getIsbn());
+        Mockito.verify(bookSearchService).index(Collections.singletonList(book));
 
     }
 
@@ -68,13 +79,29 @@ public class BookServiceTest {
 
         Book book = createValidBook();
 
-        when(bookRepository.existsByIsbn(anyLong())).thenReturn(true);
+        when(bookRepository.saveAndFlush(book)).thenThrow(new DataIntegrityViolationException("ux_book_isbn"));
 
         Throwable throwable = Assertions.catchThrowable(() -> bookService.save(book));
 
         assertThat(throwable).isInstanceOf(BusinessException.class).hasMessage("Isbn já cadastrada");
 
-        Mockito.verify(bookRepository, never()).save(book);
+        Mockito.verify(bookRepository, never()).existsByIsbn(anyLong());
+
+    }
+
+    @Test
+    @DisplayName("Should let constraint failures other than the isbn index through")
+    public void otherConstraintViolationTest() {
+
+        Book book = createValidBook();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("fk_book_publisher");
+
+        when(bookRepository.saveAndFlush(book)).thenThrow(violation);
+
+        Throwable throwable = Assertions.catchThrowable(() -> bookService.save(book));
+
+        assertThat(throwable).isSameAs(violation);
+        Mockito.verify(bookSearchService, never()).index(anyCollection());
 
     }
 
@@ -143,11 +170,11 @@ public class BookServiceTest {
 
         Book book = createValidBook();
 
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookRepository.saveAndFlush(book)).thenReturn(book);
 
         Book bookUpdated = bookService.update(book);
 
-        Mockito.verify(bookRepository, times(1)).save(book);
+        Mockito.verify(bookRepository, times(1)).saveAndFlush(book);
 
         assertThat(bookUpdated).isNotNull();
 
@@ -161,7 +188,7 @@ public class BookServiceTest {
 
         assertThat(throwable).isInstanceOf(IllegalArgumentException.class).hasMessage("Book id cant be null.");
 
-        Mockito.verify(bookRepository, never()).save(new Book());
+        Mockito.verify(bookRepository, never()).saveAndFlush(new Book());
     }
 
     @Test
@@ -206,4 +233,101 @@ public class BookServiceTest {
         assertThat(book.getTitle()).isEqualTo(bookReturned.get().getTitle());
         assertThat(book.getIsbn()).isEqualTo(bookReturned.get().getIsbn());
     }
+
+    @Test
+    @DisplayName("Should read books through the cache")
+    void cachedBookTest() {
+
+        bookService = new BookServiceImpl(bookRepository, bookSearchService, new ConcurrentMapCacheManager());
+        Book book = createValidBook();
+
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        bookService.findById(book.getId()).get().setTitle("alterado");
+        Optional<Book> bookReturned = bookService.findById(book.getId());
+        Optional<Book> bookByIsbn = bookService.getBookByIsbn(book.getIsbn());
+
+        Mockito.verify(bookRepository, times(1)).findById(book.getId());
+        Mockito.verify(bookRepository, never()).findByIsbn(anyLong());
+        assertThat(bookReturned.get().getTitle()).isEqualTo("desgraça");
+        assertThat(bookByIsbn.get().getId()).isEqualTo(book.getId());
+    }
+
+    @Test
+    @DisplayName("Should evict the previous isbn when a book is updated")
+    void evictPreviousIsbnOnUpdateTest() {
+
+        bookService = new BookServiceImpl(bookRepository, bookSearchService, new ConcurrentMapCacheManager());
+        Book book = createValidBook();
+        Book changed = book.toBuilder().isbn(999L).build();
+
+        when(bookRepository.findByIsbn(book.getIsbn())).thenReturn(Optional.of(book), Optional.empty());
+        when(bookRepository.saveAndFlush(changed)).thenReturn(changed);
+
+        bookService.getBookByIsbn(book.getIsbn());
+        bookService.update(changed);
+
+        assertThat(bookService.getBookByIsbn(book.getIsbn()).isPresent()).isFalse();
+        assertThat(bookService.getBookByIsbn(999L).get().getId()).isEqualTo(book.getId());
+        assertThat(bookService.findById(book.getId()).get().getIsbn()).isEqualTo(999L);
+        Mockito.verify(bookRepository, times(2)).findByIsbn(book.getIsbn());
+        Mockito.verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should not cache a book read before an update that committed while it was loading")
+    void readInterleavedWithUpdateTest() {
+
+        bookService = new BookServiceImpl(bookRepository, bookSearchService, new ConcurrentMapCacheManager());
+        Book book = createValidBook();
+        Book changed = book.toBuilder().title("alterado").build();
+        AtomicInteger reads = new AtomicInteger();
+
+        when(bookRepository.saveAndFlush(changed)).thenReturn(changed);
+        when(bookRepository.findById(book.getId())).thenAnswer(invocation -> {
+            int read = reads.incrementAndGet();
+            if (read == 1) {
+                // the reader holds the old row while the update commits
+                bookService.update(changed);
+            }
+            return Optional.of(read < 3 ? book : changed);
+        });
+
+        Optional<Book> stale = bookService.findById(book.getId());
+        Optional<Book> bookReturned = bookService.findById(book.getId());
+
+        assertThat(stale.get().getTitle()).isEqualTo("desgraça");
+        assertThat(bookReturned.get().getTitle()).isEqualTo("alterado");
+        assertThat(bookService.findById(book.getId()).get().getTitle()).isEqualTo("alterado");
+        Mockito.verify(bookRepository, times(3)).findById(book.getId());
+    }
+
+    @Test
+    @DisplayName("Should evict a stale cached book when its update hits a newer version")
+    void evictStaleBookOnOptimisticLockFailureTest() {
+
+        bookService = new BookServiceImpl(bookRepository, bookSearchService, new ConcurrentMapCacheManager());
+        Book book = createValidBook();
+
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookRepository.saveAndFlush(Mockito.any(Book.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, book.getId()));
+
+        Book cached = bookService.findById(book.getId()).get();
+        Throwable throwable = Assertions.catchThrowable(() -> bookService.update(cached));
+        bookService.findById(book.getId());
+
+        assertThat(throwable).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        Mockito.verify(bookRepository, times(2)).findById(book.getId());
+    }
+
+    @Test
+    @DisplayName("Should read the version of a book from the repository")
+    void findVersionByIdTest() {
+
+        when(bookRepository.findVersionById(10L)).thenReturn(Optional.of(3L));
+
+        assertThat(bookService.findVersionById(10L)).contains(3L);
+        Mockito.verify(bookRepository, never()).findById(anyLong());
+    }
 }
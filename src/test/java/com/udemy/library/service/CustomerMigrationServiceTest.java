@@ -0,0 +1,87 @@
+package com.udemy.library.service;
+
+import com.udemy.library.config.CustomerMigrationProperties;
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.impl.CustomerMigrationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class CustomerMigrationServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @MockBean
+    CustomerService customerService;
+
+    CustomerMigrationService customerMigrationService;
+
+    @BeforeEach
+    public void setUp() {
+        CustomerMigrationProperties properties = new CustomerMigrationProperties();
+        properties.setChunkSize(2);
+        this.customerMigrationService = new CustomerMigrationServiceImpl(loanRepository, customerService, properties,
+                transactionManager);
+    }
+
+    private Loan legacyLoan(long isbn, String customer) {
+        Book book = testEntityManager.persist(Book.builder().title("livro " + isbn).author("vitu").isbn(isbn).build());
+        return testEntityManager.persist(Loan.builder().legacyCustomer(customer).book(book).loanDate(LocalDate.now())
+                .returned(true).build());
+    }
+
+    @Test
+    @DisplayName("Should move free text customers to customer references in chunks")
+    public void migrateTest() {
+        Customer vitor = testEntityManager.persist(Customer.builder().name("vitor").build());
+        Customer ana = testEntityManager.persist(Customer.builder().name("ana").build());
+        when(customerService.resolve("vitor")).thenReturn(vitor);
+        when(customerService.resolve("ana")).thenReturn(ana);
+        legacyLoan(1L, "vitor");
+        legacyLoan(2L, "ana");
+        legacyLoan(3L, "vitor");
+        testEntityManager.flush();
+
+        long migrated = customerMigrationService.migrate();
+        testEntityManager.clear();
+
+        assertThat(migrated).isEqualTo(3);
+        List<Loan> loans = loanRepository.findAll();
+        assertThat(loans)
+                .extracting(loan -> loan.getCustomer().getId(), Loan::getLegacyCustomer)
+                .containsExactlyInAnyOrder(tuple(vitor.getId(), null), tuple(ana.getId(), null), tuple(vitor.getId(), null));
+        verify(customerService, times(2)).resolve("vitor");
+
+        assertThat(customerMigrationService.migrate()).isZero();
+    }
+}
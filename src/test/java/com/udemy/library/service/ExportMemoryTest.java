@@ -0,0 +1,75 @@
+package com.udemy.library.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a few million books while the JVM runs with a small heap ({@code mvn -Plarge-tests test} runs it with
+ * {@code -Xmx128m}). The table lives in a file based H2 so only the exporter competes for the heap.
+ */
+@Tag("large")
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/export-memory-test;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.cache.type=none"})
+class ExportMemoryTest {
+
+    static final int BOOKS = 3_000_000;
+    static final int SEED_BATCH_SIZE = 10_000;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ExportService exportService;
+
+    @Test
+    @DisplayName("Should export millions of books with a flat heap")
+    void exportMillionsOfBooksTest() throws Exception {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = 1; i <= BOOKS; i++) {
+            batch.add(new Object[]{i, "Book title " + i, "Author " + (i % 1_000), i});
+            if (batch.size() == SEED_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into book (id, title, author, isbn) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+
+        CountingOutputStream out = new CountingOutputStream();
+        long rows = exportService.exportBooks(LineFormat.NDJSON, out);
+
+        assertThat(rows).isEqualTo(BOOKS);
+        assertThat(out.newLines).isEqualTo(BOOKS);
+    }
+
+    static class CountingOutputStream extends OutputStream {
+        long newLines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                newLines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
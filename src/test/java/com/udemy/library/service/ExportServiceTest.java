@@ -0,0 +1,89 @@
+package com.udemy.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.impl.ExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class ExportServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    ExportService exportService;
+
+    Book book;
+
+    Map<String, Customer> customers = new HashMap<>();
+
+    private Customer customer(String name) {
+        return customers.computeIfAbsent(name, key -> testEntityManager.persist(Customer.builder().name(key).build()));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.exportService = new ExportServiceImpl(bookRepository, loanRepository, testEntityManager.getEntityManager(), objectMapper);
+
+        book = testEntityManager.persist(Book.builder().title("Dom Casmurro, o livro").author("Machado").isbn(1L).build());
+        testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book).loanDate(LocalDate.of(2021, 5, 1)).returned(true).build());
+        testEntityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Should export books as csv")
+    public void exportBooksCsvTest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportBooks(LineFormat.CSV, out);
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,title,author,isbn\n" +
+                book.getId() + ",\"Dom Casmurro, o livro\",Machado,1\n");
+        assertThat(testEntityManager.getEntityManager().contains(book)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should export loans as ndjson")
+    public void exportLoansNdjsonTest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportLoans(LineFormat.NDJSON, out);
+
+        assertThat(rows).isEqualTo(1);
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertThat(line).endsWith("}\n");
+        assertThat(line).contains("\"customer\":\"vitor\"", "\"returned\":true", "\"isbn\":1",
+                "\"bookId\":" + book.getId());
+    }
+}
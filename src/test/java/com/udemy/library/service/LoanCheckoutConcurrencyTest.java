@@ -0,0 +1,121 @@
+package com.udemy.library.service;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.exception.BusinessException;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.LoanRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads checking out books at the same time against the real database.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Log4j2
+class LoanCheckoutConcurrencyTest {
+
+    static final int THREADS = 16;
+    static final int CHECKOUTS_PER_THREAD = 50;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    CustomerService customerService;
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Only one of many concurrent checkouts of the same book should succeed")
+    void hotBookExclusivityTest() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("hot").author("vitu").isbn(1L).build());
+
+        AtomicInteger loaned = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long elapsed = runConcurrently(thread -> {
+            for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                try {
+                    loanService.save(Loan.builder().book(book).customer(customerService.resolve("customer " + thread)).loanDate(LocalDate.now()).build());
+                    loaned.incrementAndGet();
+                } catch (BusinessException ex) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        log.info("hot book: {} checkouts in {} ms", THREADS * CHECKOUTS_PER_THREAD, elapsed);
+        assertThat(loaned.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS * CHECKOUTS_PER_THREAD - 1);
+        assertThat(loanRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Concurrent checkouts of different books should all succeed")
+    void coldBooksThroughputTest() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (long isbn = 1; isbn <= THREADS * CHECKOUTS_PER_THREAD; isbn++) {
+            books.add(Book.builder().title("cold " + isbn).author("vitu").isbn(isbn).build());
+        }
+        List<Book> saved = bookRepository.saveAll(books);
+
+        AtomicInteger loaned = new AtomicInteger();
+        long elapsed = runConcurrently(thread -> {
+            for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                Book book = saved.get(thread * CHECKOUTS_PER_THREAD + i);
+                loanService.save(Loan.builder().book(book).customer(customerService.resolve("customer " + thread)).loanDate(LocalDate.now()).build());
+                loaned.incrementAndGet();
+            }
+        });
+
+        log.info("cold books: {} checkouts in {} ms", THREADS * CHECKOUTS_PER_THREAD, elapsed);
+        assertThat(loaned.get()).isEqualTo(THREADS * CHECKOUTS_PER_THREAD);
+        assertThat(loanRepository.count()).isEqualTo(THREADS * CHECKOUTS_PER_THREAD);
+    }
+
+    private long runConcurrently(IntConsumer work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int index = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                work.accept(index);
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    }
+}
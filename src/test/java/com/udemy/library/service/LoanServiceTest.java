@@ -1,12 +1,16 @@
 package com.udemy.library.service;
 
 import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
 import com.udemy.library.domain.Loan;
 import com.udemy.library.exception.BusinessException;
 import com.udemy.library.repository.LoanRepository;
 import com.udemy.library.service.impl.LoanServiceImpl;
 import com.udemy.library.web.rest.dto.LoanDTO;
+import com.udemy.library.web.rest.dto.BatchReturnResultDTO;
 import com.udemy.library.web.rest.dto.LoanFilterDTO;
+import com.udemy.library.web.rest.dto.LoanStateDTO;
+import com.udemy.library.web.rest.dto.ReturnItemDTO;
 import lombok.extern.log4j.Log4j2;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -24,6 +29,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -35,14 +41,27 @@ import static org.mockito.Mockito.*;
 @Log4j2
 class LoanServiceTest {
 
+    static final Customer VITOR = Customer.builder().id(5L).name("vitor").build();
+    static final Customer VOTO = Customer.builder().id(6L).name("voto").build();
+
     @MockBean
     LoanRepository loanRepositoryMock;
 
+    @MockBean
+    LoanStatsService loanStatsServiceMock;
+
+    @MockBean
+    BookAvailabilityService bookAvailabilityServiceMock;
+
+    @MockBean
+    CustomerService customerServiceMock;
+
     LoanService loanService;
 
     @BeforeEach
     public void setUp() {
-        this.loanService = new LoanServiceImpl(loanRepositoryMock);
+        this.loanService = new LoanServiceImpl(loanRepositoryMock, loanStatsServiceMock, bookAvailabilityServiceMock,
+                customerServiceMock);
     }
 
     @Test
@@ -51,13 +70,11 @@ class LoanServiceTest {
 
         Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
 
-        Loan loan = Loan.builder().loanDate(LocalDate.now()).customer("vitor").book(book).build();
-
-        Loan savedLoan = Loan.builder().id(1L).loanDate(LocalDate.now()).customer("vitor").book(book).build();
+        Loan loan = Loan.builder().loanDate(LocalDate.now()).customer(VITOR).book(book).build();
 
-        when(loanRepositoryMock.existsByBookAndNotReturned(book)).thenReturn(false);
+        Loan savedLoan = Loan.builder().id(1L).loanDate(LocalDate.now()).customer(VITOR).book(book).build();
 
-        when(loanRepositoryMock.save(loan)).thenReturn(savedLoan);
+        when(loanRepositoryMock.saveAndFlush(loan)).thenReturn(savedLoan);
 
         Loan loanSaved = loanService.save(loan);
 
@@ -66,6 +83,26 @@ class LoanServiceTest {
         assertThat(loanSaved.getCustomer()).isEqualTo(savedLoan.getCustomer());
         assertThat(loanSaved.getBook()).isEqualTo(savedLoan.getBook());
 
+        verify(loanStatsServiceMock).record(10L, 5L, 1, 1);
+        verify(bookAvailabilityServiceMock).markOnLoan(10L, true);
+    }
+
+    @Test
+    @DisplayName("Should reject the checkout of a book the set holds as on loan without inserting")
+    public void rejectLoanOfBookOnLoanTest() {
+
+        Book book = Book.builder().id(1L).isbn(123L).build();
+        Loan loan = Loan.builder().book(book).customer(VOTO).build();
+
+        when(bookAvailabilityServiceMock.isOnLoan(1L)).thenReturn(true);
+        when(loanRepositoryMock.existsByActiveBookId(1L)).thenReturn(true);
+
+        Throwable throwable = Assertions.catchThrowable(() -> loanService.save(loan));
+
+        assertThat(throwable)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Book already loaned");
+        verify(loanRepositoryMock, never()).saveAndFlush(any(Loan.class));
     }
 
     @Test
@@ -73,29 +110,47 @@ class LoanServiceTest {
     public void ShouldNotLoanABookTest() {
 
         Book book = Book.builder().id(1L).isbn(123L).build();
-        Loan loan = Loan.builder().book(book).customer("voto").build();
+        Loan loan = Loan.builder().book(book).customer(VOTO).build();
 
-        when(loanRepositoryMock.existsByBookAndNotReturned(book)).thenReturn(true);
+        when(loanRepositoryMock.saveAndFlush(loan)).thenThrow(new DataIntegrityViolationException("ux_loan_active_book"));
 
         Throwable throwable = Assertions.catchThrowable(() -> loanService.save(loan));
 
         assertThat(throwable)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Book already loaned");
+        verifyNoInteractions(loanStatsServiceMock);
 
         Mockito.verify(loanRepositoryMock, never()).save(new Loan());
     }
 
 
+    @Test
+    @DisplayName("Should let constraint failures other than the active book through without marking the book")
+    public void otherConstraintViolationTest() {
+
+        Book book = Book.builder().id(1L).isbn(123L).build();
+        Loan loan = Loan.builder().book(book).customer(VOTO).build();
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("fk_loan_book");
+
+        when(loanRepositoryMock.saveAndFlush(loan)).thenThrow(violation);
+
+        Throwable throwable = Assertions.catchThrowable(() -> loanService.save(loan));
+
+        assertThat(throwable).isSameAs(violation);
+        verify(bookAvailabilityServiceMock, never()).markOnLoan(anyLong(), anyBoolean());
+        verifyNoInteractions(loanStatsServiceMock);
+    }
+
     @Test
     @DisplayName("Should return loan by id")
     public void ShouldReturnLoanByIdTest() {
 
         Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
 
-        Loan loan = Loan.builder().id(1L).loanDate(LocalDate.now()).customer("vitor").book(book).build();
+        Loan loan = Loan.builder().id(1L).loanDate(LocalDate.now()).customer(VITOR).book(book).build();
 
-        Loan savedLoan = Loan.builder().id(1L).loanDate(LocalDate.now()).customer("vitor").book(book).build();
+        Loan savedLoan = Loan.builder().id(1L).loanDate(LocalDate.now()).customer(VITOR).book(book).build();
 
         when(loanRepositoryMock.findById(loan.getId())).thenReturn(Optional.of(loan));
 
@@ -116,36 +171,37 @@ class LoanServiceTest {
     public void updateLoanTest() {
         Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
 
-        Loan loan = Loan.builder().id(1L).loanDate(LocalDate.now()).returned(true).customer("vitor").book(book).build();
+        Loan loan = Loan.builder().id(1L).loanDate(LocalDate.now()).returned(true).customer(VITOR).book(book)
+                .activeBookId(10L).build();
 
-        when(loanRepositoryMock.save(loan)).thenReturn(loan);
+        when(loanRepositoryMock.saveAndFlush(loan)).thenReturn(loan);
 
         Loan loanSaved = loanService.update(loan);
 
         assertThat(loanSaved.getReturned()).isTrue();
 
-        Mockito.verify(loanRepositoryMock, times(1)).save(loan);
-
+        Mockito.verify(loanRepositoryMock, times(1)).saveAndFlush(loan);
+        verify(loanStatsServiceMock).record(10L, 5L, 0, -1);
+        verify(bookAvailabilityServiceMock).markOnLoan(10L, false);
     }
 
     @Test
     @DisplayName("Should return loan using filters")
     public void ShouldFilterLoanTest() throws Exception {
         // cenario
-        Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
-
-        Loan loan = Loan.builder().id(1L).loanDate(LocalDate.now()).returned(true).customer("vitor").book(book).build();
+        LoanDTO loan = new LoanDTO(1L, "vitor", 10L, 123231L, "desgraça", "vitu");
 
-        Page<Loan> page = new PageImpl<Loan>(Arrays.asList(loan), PageRequest.of(0, 10), 1);
+        Page<LoanDTO> page = new PageImpl<LoanDTO>(Arrays.asList(loan), PageRequest.of(0, 10), 1);
 
-        when(loanRepositoryMock.findByBook_IsbnOrCustomer(any(Long.class),any(String.class), any(PageRequest.class))).thenReturn(page);
+        when(customerServiceMock.findId("vitor")).thenReturn(Optional.of(5L));
+        when(loanRepositoryMock.findDtoByIsbnOrCustomer(any(Long.class), eq(5L), eq("vitor"), any(PageRequest.class))).thenReturn(page);
 
         LoanFilterDTO loanFilterDTO = LoanFilterDTO.builder().isbn(123231L).customer("vitor").build();
         // execução
-        Page<Loan> loanDTOS = loanService.find(0, 10,loanFilterDTO );
+        Page<LoanDTO> loanDTOS = loanService.find(0, 10,loanFilterDTO );
         log.info(loanDTOS.toString());
 
-        verify(loanRepositoryMock, times(1)).findByBook_IsbnOrCustomer(any(Long.class),any(String.class), any(PageRequest.class));
+        verify(loanRepositoryMock, times(1)).findDtoByIsbnOrCustomer(any(Long.class), eq(5L), eq("vitor"), any(PageRequest.class));
 
         // verificação
         assertThat(loanDTOS.getTotalElements()).isEqualTo(1);
@@ -154,4 +210,54 @@ class LoanServiceTest {
         assertThat(loanDTOS.getPageable().getPageSize()).isEqualTo(10);
 
     }
+
+    @Test
+    @DisplayName("Should return a batch of loans with a single update and report each item")
+    public void returnAllTest() {
+        when(loanRepositoryMock.findStatesByIdIn(new HashSet<>(Arrays.asList(1L, 2L, 3L)))).thenReturn(Arrays.asList(
+                new LoanStateDTO(1L, 10L, null, 100L, 5L),
+                new LoanStateDTO(2L, 20L, true, 200L, 5L)));
+        when(loanRepositoryMock.findLatestStatesByIsbnIn(new HashSet<>(Arrays.asList(10L, 30L)))).thenReturn(Arrays.asList(
+                new LoanStateDTO(1L, 10L, null, 100L, 5L),
+                new LoanStateDTO(4L, 30L, false, 300L, 7L)));
+        when(loanRepositoryMock.lockActiveIdsByIdIn(new HashSet<>(Arrays.asList(1L, 4L)))).thenReturn(Arrays.asList(1L, 4L));
+        when(loanRepositoryMock.returnAllById(new HashSet<>(Arrays.asList(1L, 4L)))).thenReturn(2);
+
+        BatchReturnResultDTO result = loanService.returnAll(Arrays.asList(1L, 2L, 3L), Arrays.asList(10L, 30L));
+
+        assertThat(result.getReturned()).isEqualTo(2);
+        org.assertj.core.api.Assertions.assertThat(result.getItems()).containsExactly(
+                new ReturnItemDTO(1L, null, ReturnItemDTO.Status.RETURNED),
+                new ReturnItemDTO(2L, null, ReturnItemDTO.Status.ALREADY_RETURNED),
+                new ReturnItemDTO(3L, null, ReturnItemDTO.Status.NOT_FOUND),
+                new ReturnItemDTO(1L, 10L, ReturnItemDTO.Status.ALREADY_RETURNED),
+                new ReturnItemDTO(4L, 30L, ReturnItemDTO.Status.RETURNED));
+        verify(loanRepositoryMock, never()).saveAndFlush(any(Loan.class));
+        verify(loanStatsServiceMock).record(100L, 5L, 0, -1);
+        verify(loanStatsServiceMock).record(300L, 7L, 0, -1);
+        verify(bookAvailabilityServiceMock).markOnLoan(100L, false);
+        verify(bookAvailabilityServiceMock).markOnLoan(300L, false);
+        verifyNoMoreInteractions(loanStatsServiceMock);
+    }
+
+    @Test
+    @DisplayName("Should not record a loan returned concurrently between the read and the update")
+    public void returnAllConcurrentReturnTest() {
+        when(loanRepositoryMock.findStatesByIdIn(new HashSet<>(Arrays.asList(1L, 4L)))).thenReturn(Arrays.asList(
+                new LoanStateDTO(1L, 10L, false, 100L, 5L),
+                new LoanStateDTO(4L, 30L, false, 300L, 7L)));
+        // loan 1 was returned by another batch after it was read, so the lock only finds loan 4 still active
+        when(loanRepositoryMock.lockActiveIdsByIdIn(new HashSet<>(Arrays.asList(1L, 4L)))).thenReturn(Arrays.asList(4L));
+        when(loanRepositoryMock.returnAllById(new HashSet<>(Arrays.asList(4L)))).thenReturn(1);
+
+        BatchReturnResultDTO result = loanService.returnAll(Arrays.asList(1L, 4L), null);
+
+        assertThat(result.getReturned()).isEqualTo(1);
+        org.assertj.core.api.Assertions.assertThat(result.getItems()).containsExactly(
+                new ReturnItemDTO(1L, null, ReturnItemDTO.Status.ALREADY_RETURNED),
+                new ReturnItemDTO(4L, null, ReturnItemDTO.Status.RETURNED));
+        verify(loanStatsServiceMock).record(300L, 7L, 0, -1);
+        verify(bookAvailabilityServiceMock).markOnLoan(300L, false);
+        verifyNoMoreInteractions(loanStatsServiceMock, bookAvailabilityServiceMock);
+    }
 }
@@ -0,0 +1,166 @@
+package com.udemy.library.service;
+
+import com.udemy.library.config.LoanStatsProperties;
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.impl.LoanStatsServiceImpl;
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import com.udemy.library.web.rest.dto.LoanStatsVerificationDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanStatsServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    LoanStatsService loanStatsService;
+
+    Map<String, Customer> customers = new HashMap<>();
+
+    private Customer customer(String name) {
+        return customers.computeIfAbsent(name, key -> testEntityManager.persist(Customer.builder().name(key).build()));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        this.loanStatsService = new LoanStatsServiceImpl(loanRepository, new LoanStatsProperties(), transactionManager);
+    }
+
+    private Book book(long isbn) {
+        return testEntityManager.persist(Book.builder().title("livro " + isbn).author("vitu").isbn(isbn).build());
+    }
+
+    private void loan(Book book, String name, boolean returned) {
+        testEntityManager.persist(Loan.builder().customer(customer(name)).book(book).loanDate(LocalDate.now()).returned(returned).build());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the loan counters from the loan table")
+    public void rebuildTest() {
+        Book first = book(1L);
+        Book second = book(2L);
+        loan(first, "vitor", true);
+        loan(first, "ana", false);
+        loan(second, "vitor", false);
+        testEntityManager.flush();
+
+        LoanStatsVerificationDTO verification = loanStatsService.rebuild();
+
+        assertThat(verification.getBooks()).isEqualTo(2);
+        assertThat(verification.getCustomers()).isEqualTo(2);
+        LoanStatsDTO stats = loanStatsService.stats(first.getId(), customer("vitor").getId());
+        assertThat(stats.getLoans()).isEqualTo(3);
+        assertThat(stats.getActiveLoans()).isEqualTo(2);
+        assertThat(stats.getBookLoans()).isEqualTo(2);
+        assertThat(stats.getBookActiveLoans()).isEqualTo(1);
+        assertThat(stats.getCustomerLoans()).isEqualTo(2);
+        assertThat(stats.getCustomerActiveLoans()).isEqualTo(1);
+
+        assertThat(loanStatsService.rebuild().isTotalsMatched()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should only apply recorded loans once their transaction commits")
+    public void recordAfterCommitTest() {
+        loanStatsService.record(1L, 7L, 1, 1);
+
+        assertThat(loanStatsService.stats(1L, null).getBookLoans()).isZero();
+
+        TestTransaction.end();
+
+        assertThat(loanStatsService.stats(1L, null).getLoans()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should apply recorded loans at once without a transaction and report the drift on rebuild")
+    public void recordWithoutTransactionTest() {
+        loanStatsService.record(1L, 7L, 1, 1);
+        loanStatsService.record(1L, 7L, 0, -1);
+
+        LoanStatsDTO stats = loanStatsService.stats(1L, 7L);
+        assertThat(stats.getLoans()).isEqualTo(1);
+        assertThat(stats.getActiveLoans()).isZero();
+        assertThat(stats.getBookLoans()).isEqualTo(1);
+        assertThat(stats.getCustomerActiveLoans()).isZero();
+
+        LoanStatsVerificationDTO verification = loanStatsService.rebuild();
+
+        assertThat(verification.isTotalsMatched()).isFalse();
+        assertThat(verification.getBookMismatches()).isEqualTo(1);
+        assertThat(verification.getCustomerMismatches()).isEqualTo(1);
+        assertThat(loanStatsService.stats(1L, null).getLoans()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should not lose loans recorded while the rebuilt counters are swapped in")
+    public void recordDuringSwapTest() throws Exception {
+        // the table holds every loan recorded so far: each one is counted before it is recorded, like a commit
+        AtomicLong committed = new AtomicLong();
+        LoanRepository repository = mock(LoanRepository.class);
+        when(repository.countAll()).thenAnswer(invocation -> committed.get());
+        when(repository.countActive()).thenAnswer(invocation -> committed.get());
+        when(repository.streamCountsByBook())
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{1L, committed.get(), committed.get()}));
+        when(repository.streamCountsByCustomer())
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{7L, committed.get(), committed.get()}));
+        LoanStatsService service = new LoanStatsServiceImpl(repository, new LoanStatsProperties(), transactionManager);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Void> recorder = CompletableFuture.runAsync(() -> {
+            while (running.get()) {
+                committed.incrementAndGet();
+                service.record(1L, 7L, 1, 1);
+            }
+        });
+        for (int i = 0; i < 500; i++) {
+            service.rebuild();
+        }
+        running.set(false);
+        recorder.get(1, TimeUnit.MINUTES);
+
+        // a loan recorded while a rebuild reads the table may be counted twice, but never dropped
+        LoanStatsDTO stats = service.stats(1L, 7L);
+        assertThat(stats.getLoans()).isGreaterThanOrEqualTo(committed.get());
+        assertThat(stats.getActiveLoans()).isGreaterThanOrEqualTo(committed.get());
+        assertThat(stats.getBookLoans()).isGreaterThanOrEqualTo(committed.get());
+        assertThat(stats.getCustomerActiveLoans()).isGreaterThanOrEqualTo(committed.get());
+    }
+}
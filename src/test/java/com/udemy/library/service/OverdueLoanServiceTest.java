@@ -0,0 +1,118 @@
+package com.udemy.library.service;
+
+import com.udemy.library.config.OverdueProperties;
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.repository.JobCheckpointRepository;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.service.impl.OverdueLoanServiceImpl;
+import com.udemy.library.web.rest.dto.OverdueLoanDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class OverdueLoanServiceTest {
+
+    static final LocalDate TODAY = LocalDate.of(2021, 6, 30);
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<OverdueLoanDTO> published = new ArrayList<>();
+    OverdueProperties properties = new OverdueProperties();
+    OverdueLoanService overdueLoanService;
+
+    Map<String, Customer> customers = new HashMap<>();
+
+    private Customer customer(String name) {
+        return customers.computeIfAbsent(name, key -> testEntityManager.persist(Customer.builder().name(key).build()));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        properties.setLoanPeriod(Period.ofDays(10));
+        properties.setChunkSize(2);
+        this.overdueLoanService = new OverdueLoanServiceImpl(loanRepository, jobCheckpointRepository,
+                published::addAll, properties, transactionManager);
+    }
+
+    private Loan loan(long isbn, LocalDate loanDate, boolean returned) {
+        Book book = testEntityManager.persist(Book.builder().title("livro " + isbn).author("vitu").isbn(isbn).build());
+        return testEntityManager.persist(Loan.builder().customer(customer("vitor")).book(book).loanDate(loanDate).returned(returned).build());
+    }
+
+    @Test
+    @DisplayName("Should publish active loans past the loan period, in chunks")
+    public void notifyOverdueLoansTest() {
+        Loan oldest = loan(1L, TODAY.minusDays(30), false);
+        loan(2L, TODAY.minusDays(25), true);
+        Loan older = loan(3L, TODAY.minusDays(20), false);
+        Loan limit = loan(4L, TODAY.minusDays(10), false);
+        loan(5L, TODAY.minusDays(9), false);
+
+        long notified = overdueLoanService.notifyOverdue(TODAY);
+
+        assertThat(notified).isEqualTo(3);
+        assertThat(published).extracting(OverdueLoanDTO::getId)
+                .containsExactly(oldest.getId(), older.getId(), limit.getId());
+        assertThat(published.get(0).getIsbn()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should only publish the loans that became overdue since the previous run")
+    public void resumeFromHighWaterMarkTest() {
+        loan(1L, TODAY.minusDays(30), false);
+        Loan later = loan(2L, TODAY.minusDays(5), false);
+
+        assertThat(overdueLoanService.notifyOverdue(TODAY)).isEqualTo(1);
+        assertThat(overdueLoanService.notifyOverdue(TODAY)).isZero();
+
+        published.clear();
+        assertThat(overdueLoanService.notifyOverdue(TODAY.plusDays(5))).isEqualTo(1);
+        assertThat(published).extracting(OverdueLoanDTO::getId).containsExactly(later.getId());
+        assertThat(jobCheckpointRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should stop after the maximum chunks of a run and continue on the next one")
+    public void boundedRunTest() {
+        for (long isbn = 1; isbn <= 5; isbn++) {
+            loan(isbn, TODAY.minusDays(20 + isbn), false);
+        }
+        properties.setMaxChunksPerRun(1);
+
+        assertThat(overdueLoanService.notifyOverdue(TODAY)).isEqualTo(2);
+        assertThat(overdueLoanService.notifyOverdue(TODAY)).isEqualTo(2);
+        assertThat(overdueLoanService.notifyOverdue(TODAY)).isEqualTo(1);
+        assertThat(published).extracting(OverdueLoanDTO::getIsbn).containsExactly(5L, 4L, 3L, 2L, 1L);
+    }
+}
@@ -3,8 +3,16 @@ package com.udemy.library.web.rest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.udemy.library.domain.Book;
 import com.udemy.library.exception.BusinessException;
+import com.udemy.library.service.BookImportService;
+import com.udemy.library.service.BookSearchService;
 import com.udemy.library.service.BookService;
+import com.udemy.library.service.BookSort;
+import com.udemy.library.service.Cursor;
+import com.udemy.library.service.LineFormat;
 import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.BulkImportResultDTO;
+import com.udemy.library.web.rest.dto.LineErrorDTO;
+import com.udemy.library.web.rest.mapper.BookMapperImpl;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,16 +22,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.Reader;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -31,6 +45,8 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +54,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 @WebMvcTest(controllers = BookResource.class)
 @AutoConfigureMockMvc
+@Import(BookMapperImpl.class)
 public class BookResourceTest {
 
     static String BOOK_API = "/api/books";
@@ -48,6 +65,12 @@ public class BookResourceTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
     @Test
     @DisplayName("Should create a book with success")
     public void createBookTest() throws Exception {
@@ -115,6 +138,29 @@ public class BookResourceTest {
 
     }
 
+    @Test
+    @DisplayName("Should import books from a ndjson body")
+    public void bulkImportBooksTest() throws Exception {
+
+        BulkImportResultDTO result = new BulkImportResultDTO(1, 1,
+                Collections.singletonList(new LineErrorDTO(2, Collections.singletonList("Isbn já cadastrada"))), false);
+
+        given(bookImportService.importBooks(Mockito.any(Reader.class), Mockito.eq(LineFormat.NDJSON))).willReturn(result);
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post(BOOK_API.concat("/bulk"))
+                .contentType("application/x-ndjson")
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"a\",\"author\":\"b\",\"isbn\":1}\n{\"title\":\"a\",\"author\":\"b\",\"isbn\":1}\n");
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("imported").value(1))
+                .andExpect(jsonPath("rejected").value(1))
+                .andExpect(jsonPath("errors[0].line").value(2))
+                .andExpect(jsonPath("errors[0].errors[0]").value("Isbn já cadastrada"))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Should get book information")
     public void getBookInformaticionsTest() throws Exception {
@@ -136,6 +182,41 @@ public class BookResourceTest {
                 .andDo(print());
     }
 
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with not modified from the version alone")
+    public void notModifiedTest() throws Exception {
+        given(bookService.findVersionById(1L)).willReturn(Optional.of(3L));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""))
+                .andDo(print());
+        Mockito.verify(bookService, Mockito.never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should return the book with its ETag when If-None-Match is outdated")
+    public void modifiedTest() throws Exception {
+        Book book = createValidBook().toBuilder().version(3L).build();
+        given(bookService.findVersionById(book.getId())).willReturn(Optional.of(3L));
+        given(bookService.findById(book.getId())).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(BOOK_API.concat("/" + book.getId()))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("id").value(book.getId()))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Should return resource not found when search for a book that dont exist")
     public void bookNotFoundTest() throws Exception {
@@ -207,6 +288,49 @@ public class BookResourceTest {
                 .andDo(print());
     }
 
+    @Test
+    @DisplayName("Should reject an update whose If-Match is not the current version")
+    public void updatePreconditionFailedTest() throws Exception {
+        Book book = createValidBook().toBuilder().version(2L).build();
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().author("vitu").title("desgraça").isbn(1L).build());
+
+        given(bookService.findById(book.getId())).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.put(BOOK_API.concat("/" + book.getId()))
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("Resource was changed by another request"))
+                .andDo(print());
+        Mockito.verify(bookService, Mockito.never()).update(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Should return precondition failed when a concurrent update wins")
+    public void concurrentUpdateTest() throws Exception {
+        Book book = createValidBook().toBuilder().version(2L).build();
+        String json = new ObjectMapper().writeValueAsString(BookDTO.builder().author("vitu").title("desgraça").isbn(1L).build());
+
+        given(bookService.findById(book.getId())).willReturn(Optional.of(book));
+        given(bookService.update(Mockito.any(Book.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Book.class, book.getId()));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.put(BOOK_API.concat("/" + book.getId()))
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("Resource was changed by another request"))
+                .andDo(print());
+    }
+
     @Test
     @DisplayName("Should return resource not found when update a book that dont exist")
     public void bookNotFoundTestWhenUpdateBookTest() throws Exception {
@@ -244,11 +368,93 @@ public class BookResourceTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("content", Matchers.hasSize(1)))
                 .andExpect(jsonPath("totalElements").value(1))
-                .andExpect(jsonPath("pageable.pageSize").value(100))
-                .andExpect(jsonPath("pageable.pageNumber").value(0))
+                .andExpect(jsonPath("size").value(100))
+                .andExpect(jsonPath("page").value(0))
+                .andExpect(jsonPath("totalPages").value(1))
+                .andExpect(jsonPath("pageable").doesNotExist())
                 .andDo(print());
     }
 
+    @Test
+    @DisplayName("Should filter books without counting them")
+    public void findBooksWithoutTotalTest() throws Exception {
+        // cénario (given, dado).
+        Book book = createValidBook();
+        given(bookService.findSlice(anyInt(), anyInt(), Mockito.any(Book.class)))
+                .willReturn(new SliceImpl<>(Arrays.asList(book), PageRequest.of(0, 10), false));
+        given(bookService.approximateCount(Mockito.any(Book.class))).willReturn(42L);
+
+        // execução (when, quando)
+        String queryString = String.format("?title=%s&page=0&size=10&withTotal=false&approximateTotal=true", book.getTitle());
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(BOOK_API.concat(queryString))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("page").value(0))
+                .andExpect(jsonPath("hasNext").value(false))
+                .andExpect(jsonPath("approximateTotal").value(42))
+                .andExpect(jsonPath("totalElements").doesNotExist())
+                .andDo(print());
+
+        Mockito.verify(bookService, Mockito.never()).find(anyInt(), anyInt(), Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Should search books through the full text index")
+    public void searchBooksTest() throws Exception {
+        Book book = createValidBook();
+        given(bookSearchService.search("desgraca vitu", 0, 20))
+                .willReturn(new SliceImpl<>(Arrays.asList(book), PageRequest.of(0, 20), true));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(BOOK_API.concat("/search?q=desgraca vitu"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].title").value(book.getTitle()))
+                .andExpect(jsonPath("page").value(0))
+                .andExpect(jsonPath("size").value(20))
+                .andExpect(jsonPath("hasNext").value(true));
+
+        Mockito.verify(bookService, Mockito.never()).find(anyInt(), anyInt(), Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Should find books after a cursor")
+    public void findBooksAfterCursorTest() throws Exception {
+        // cénario (given, dado).
+        Book book = createValidBook();
+        given(bookService.findAfter(Mockito.eq(Cursor.of(1L, "a")), Mockito.eq(1), Mockito.any(Book.class), Mockito.eq(BookSort.TITLE)))
+                .willReturn(new SliceImpl<>(Arrays.asList(book), PageRequest.of(0, 1), true));
+
+        // execução (when, quando)
+        String queryString = String.format("?after=%s&size=1&sort=title", Cursor.of(1L, "a").encode());
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(BOOK_API.concat(queryString))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("hasNext").value(true))
+                .andExpect(jsonPath("next").value(Cursor.of(book.getId(), book.getTitle()).encode()))
+                .andExpect(jsonPath("totalElements").doesNotExist())
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an invalid cursor")
+    public void findBooksWithInvalidCursorTest() throws Exception {
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(BOOK_API.concat("?after=***"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Invalid cursor"))
+                .andDo(print());
+    }
 
     private Book createValidBook() {
         return Book.builder()
@@ -0,0 +1,92 @@
+package com.udemy.library.web.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udemy.library.config.HoldTimeDataSource;
+import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Loan;
+import com.udemy.library.repository.BookRepository;
+import com.udemy.library.repository.LoanRepository;
+import com.udemy.library.web.rest.dto.LoanDTO;
+import com.udemy.library.web.rest.dto.ReturnedLoanDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks a book out and returns it through the real stack with open session in view off, where the loan's lazy
+ * customer reference has no session to fall back on outside the service transactions.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"spring.jpa.open-in-view=false", "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+class LoanResourceIntegrationTest {
+
+    static final String LOAN_API = "/api/loans";
+    static final long ISBN = 9_000_001L;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should check out, find and return a loan without open session in view")
+    void checkoutAndReturnTest() throws Exception {
+        bookRepository.save(Book.builder().title("o carrasco").author("draven").isbn(ISBN).build());
+        String checkout = objectMapper.writeValueAsString(LoanDTO.builder().isbn(ISBN).customer("integracao").build());
+
+        String id = mockMvc.perform(MockMvcRequestBuilders.post(LOAN_API)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(checkout))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(MockMvcRequestBuilders.get(LOAN_API)
+                        .param("customer", "integracao").param("page", "0").param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content[0].id").value(Long.valueOf(id)))
+                .andExpect(jsonPath("content[0].customer").value("integracao"))
+                .andExpect(jsonPath("content[0].book.isbn").value(ISBN));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/" + id))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ReturnedLoanDTO.builder().returned(true).build())))
+                .andExpect(status().isOk());
+
+        Loan returned = loanRepository.findById(Long.valueOf(id)).get();
+        assertThat(returned.getReturned()).isTrue();
+        assertThat(returned.getActiveBookId()).isNull();
+        assertThat(meterRegistry.get(HoldTimeDataSource.CONNECTION_HOLD).tag("endpoint", "POST /api/loans").timer()
+                .count()).isPositive();
+        assertThat(meterRegistry.get(HoldTimeDataSource.CONNECTION_HOLD).tag("endpoint", "PATCH /api/loans/{bookId}")
+                .timer().count()).isPositive();
+    }
+}
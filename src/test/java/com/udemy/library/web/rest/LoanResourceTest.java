@@ -2,12 +2,21 @@ package com.udemy.library.web.rest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.udemy.library.domain.Book;
+import com.udemy.library.domain.Customer;
 import com.udemy.library.domain.Loan;
 import com.udemy.library.exception.BusinessException;
+import com.udemy.library.service.BookAvailabilityService;
 import com.udemy.library.service.BookService;
+import com.udemy.library.service.Cursor;
+import com.udemy.library.service.CustomerService;
 import com.udemy.library.service.LoanService;
+import com.udemy.library.service.LoanStatsService;
+import com.udemy.library.web.rest.dto.BatchReturnDTO;
+import com.udemy.library.web.rest.dto.BatchReturnResultDTO;
 import com.udemy.library.web.rest.dto.LoanDTO;
 import com.udemy.library.web.rest.dto.LoanFilterDTO;
+import com.udemy.library.web.rest.dto.LoanStatsDTO;
+import com.udemy.library.web.rest.dto.ReturnItemDTO;
 import com.udemy.library.web.rest.dto.ReturnedLoanDTO;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +30,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -46,6 +56,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 public class LoanResourceTest {
 
     static final String LOAN_URL = "/api/loans";
+    static final Customer VITOR = Customer.builder().id(5L).name("vitor").build();
 
     @Autowired
     MockMvc mockMvc;
@@ -56,6 +67,15 @@ public class LoanResourceTest {
     @MockBean
     LoanService loanServiceMock;
 
+    @MockBean
+    LoanStatsService loanStatsServiceMock;
+
+    @MockBean
+    BookAvailabilityService bookAvailabilityServiceMock;
+
+    @MockBean
+    CustomerService customerServiceMock;
+
     @Test
     @DisplayName("Deve realizar um emprestimo")
     public void createLoanTest() throws Exception {
@@ -64,12 +84,14 @@ public class LoanResourceTest {
 
         Book book = Book.builder().id(1L).isbn(123L).build();
 
-        Loan loan = Loan.builder().id(1L).customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Loan loan = Loan.builder().id(1L).customer(VITOR).book(book).loanDate(LocalDate.now()).build();
 
         String json = new ObjectMapper().writeValueAsString(loanDTO);
 
         BDDMockito.given(bookServiceMock.getBookByIsbn(anyLong())).willReturn(Optional.of(book));
 
+        BDDMockito.given(customerServiceMock.resolve("vitor")).willReturn(VITOR);
+
         BDDMockito.given(loanServiceMock.save(any(Loan.class))).willReturn(loan);
 
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post(LOAN_URL)
@@ -81,6 +103,8 @@ public class LoanResourceTest {
                 .andExpect(status().isCreated())
                 .andExpect(content().string("1"))
                 .andDo(print());
+
+        verify(loanServiceMock).save(argThat(saved -> saved.getCustomer() == VITOR));
     }
 
     @Test
@@ -91,7 +115,7 @@ public class LoanResourceTest {
 
         Book book = Book.builder().id(1L).isbn(123L).build();
 
-        Loan loan = Loan.builder().id(1L).customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Loan loan = Loan.builder().id(1L).customer(VITOR).book(book).loanDate(LocalDate.now()).build();
 
         String json = new ObjectMapper().writeValueAsString(loanDTO);
 
@@ -120,7 +144,7 @@ public class LoanResourceTest {
 
         Book book = Book.builder().id(1L).isbn(123L).build();
 
-        Loan loan = Loan.builder().id(1L).customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Loan loan = Loan.builder().id(1L).customer(VITOR).book(book).loanDate(LocalDate.now()).build();
 
         String json = new ObjectMapper().writeValueAsString(loanDTO);
 
@@ -148,7 +172,7 @@ public class LoanResourceTest {
 
         Book book = Book.builder().id(1L).isbn(123L).build();
 
-        Loan loan = Loan.builder().id(1L).customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        Loan loan = Loan.builder().id(1L).customer(VITOR).book(book).loanDate(LocalDate.now()).build();
 
         String json = new ObjectMapper().writeValueAsString(returnedLoanDTO);
 
@@ -196,24 +220,123 @@ public class LoanResourceTest {
     @DisplayName("Should return a loan using filters")
     public void findLoanWithFiltersTest() throws Exception {
 
-        Book book = Book.builder().id(1L).isbn(123L).build();
-
-        Loan loan = Loan.builder().id(1L).customer("vitor").book(book).loanDate(LocalDate.now()).build();
+        LoanDTO loan = new LoanDTO(1L, "vitor", 1L, 123L, "o carrasco", "draven");
 
         // cénario (given, dado).
         given(loanServiceMock.find(anyInt(),anyInt(), Mockito.any(LoanFilterDTO.class))).willReturn(new PageImpl<>(Arrays.asList(loan), PageRequest.of(0,10),1));
 
         // execução (when, quando)
-        String queryString = String.format("?isbn=%s&customer=%s&page=0&size=10", loan.getBook().getIsbn(), loan.getCustomer());
+        String queryString = String.format("?isbn=%s&customer=%s&page=0&size=10", loan.getIsbn(), loan.getCustomer());
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(LOAN_URL.concat(queryString))
                 .accept(MediaType.APPLICATION_JSON);
 
         mockMvc.perform(requestBuilder)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].book.title").value("o carrasco"))
                 .andExpect(jsonPath("totalElements").value(1))
-                .andExpect(jsonPath("pageable.pageSize").value(10))
-                .andExpect(jsonPath("pageable.pageNumber").value(0))
+                .andExpect(jsonPath("size").value(10))
+                .andExpect(jsonPath("page").value(0))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Should return the first loans of a keyset listing")
+    public void findLoanAfterCursorTest() throws Exception {
+
+        LoanDTO loan = new LoanDTO(7L, "vitor", 1L, 123L, "o carrasco", "draven");
+
+        given(loanServiceMock.findAfter(Mockito.eq(Cursor.START), anyInt(), Mockito.any(LoanFilterDTO.class)))
+                .willReturn(new SliceImpl<>(Arrays.asList(loan), PageRequest.of(0, 1), true));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get(LOAN_URL.concat("?customer=vitor&after=&size=1"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].isbn").value(123))
+                .andExpect(jsonPath("hasNext").value(true))
+                .andExpect(jsonPath("next").value(Cursor.of(7L, null).encode()))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Should return a batch of loans and report every item")
+    public void returnBooksTest() throws Exception {
+
+        BatchReturnDTO batchReturnDTO = BatchReturnDTO.builder()
+                .loanIds(Arrays.asList(1L, 2L))
+                .isbns(Arrays.asList(123L))
+                .build();
+
+        given(loanServiceMock.returnAll(Arrays.asList(1L, 2L), Arrays.asList(123L)))
+                .willReturn(new BatchReturnResultDTO(2, Arrays.asList(
+                        new ReturnItemDTO(1L, null, ReturnItemDTO.Status.RETURNED),
+                        new ReturnItemDTO(2L, null, ReturnItemDTO.Status.NOT_FOUND),
+                        new ReturnItemDTO(5L, 123L, ReturnItemDTO.Status.RETURNED))));
+
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.patch(LOAN_URL.concat("/return"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(batchReturnDTO));
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("returned").value(2))
+                .andExpect(jsonPath("items", Matchers.hasSize(3)))
+                .andExpect(jsonPath("items[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("items[1].isbn").doesNotExist())
+                .andExpect(jsonPath("items[2].loanId").value(5))
+                .andDo(print());
+
+        verify(loanServiceMock, never()).update(any(Loan.class));
+    }
+
+    @Test
+    @DisplayName("Should read the loan statistics of a book from the counters")
+    public void statsTest() throws Exception {
+
+        Book book = Book.builder().id(1L).isbn(123L).build();
+
+        given(bookServiceMock.getBookByIsbn(123L)).willReturn(Optional.of(book));
+        given(loanStatsServiceMock.stats(1L, null)).willReturn(LoanStatsDTO.builder()
+                .loans(10).activeLoans(4).bookLoans(3L).bookActiveLoans(1L).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(LOAN_URL.concat("/stats?isbn=123")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("loans").value(10))
+                .andExpect(jsonPath("activeLoans").value(4))
+                .andExpect(jsonPath("isbn").value(123))
+                .andExpect(jsonPath("bookLoans").value(3))
+                .andExpect(jsonPath("bookActiveLoans").value(1))
+                .andExpect(jsonPath("customer").doesNotExist())
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Should return not found for the statistics of an unknown isbn")
+    public void statsUnknownIsbnTest() throws Exception {
+
+        given(bookServiceMock.getBookByIsbn(anyLong())).willReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(LOAN_URL.concat("/stats?isbn=123")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        verify(loanStatsServiceMock, never()).stats(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should tell whether a book is available from the set of books on loan")
+    public void availabilityTest() throws Exception {
+
+        given(bookServiceMock.getBookByIsbn(123L)).willReturn(Optional.of(Book.builder().id(1L).isbn(123L).build()));
+        given(bookAvailabilityServiceMock.isOnLoan(1L)).willReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(LOAN_URL.concat("/availability?isbn=123")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("isbn").value(123))
+                .andExpect(jsonPath("available").value(false))
                 .andDo(print());
     }
 }
@@ -0,0 +1,117 @@
+package com.udemy.library.web.rest;
+
+import com.udemy.library.config.WebExecutionConfig;
+import com.udemy.library.domain.Book;
+import com.udemy.library.service.BookImportService;
+import com.udemy.library.service.BookSearchService;
+import com.udemy.library.service.BookService;
+import com.udemy.library.web.rest.mapper.BookMapperImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = BookResource.class, properties = {
+        "library.web.execution=async", "library.web.pool-size=1", "library.web.queue-capacity=1"})
+@AutoConfigureMockMvc
+@Import({BookMapperImpl.class, WebExecutionConfig.class})
+public class OffloadedResourceTest {
+
+    static String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ThreadPoolExecutor handlerExecutor;
+
+    @MockBean
+    BookService bookService;
+
+    @MockBean
+    BookImportService bookImportService;
+
+    @MockBean
+    BookSearchService bookSearchService;
+
+    @Test
+    @DisplayName("Should run the handler on the handler executor")
+    public void offloadedHandlerTest() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        given(bookService.findById(1L)).willAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return Optional.of(Book.builder().id(1L).title("o carrasco").author("draven").isbn(1L).build());
+        });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("title").value("o carrasco"));
+        assertThat(thread.get()).startsWith("handler-");
+    }
+
+    @Test
+    @DisplayName("Should keep the error handling of offloaded handlers")
+    public void offloadedErrorTest() throws Exception {
+        given(bookService.findById(anyLong())).willReturn(Optional.empty());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should reject requests with 503 once the handler executor and its queue are full")
+    public void rejectWhenSaturatedTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        handlerExecutor.execute(() -> awaitQuietly(release));
+        handlerExecutor.execute(() -> awaitQuietly(release));
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("errors[0]").value("Server busy, try again later"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
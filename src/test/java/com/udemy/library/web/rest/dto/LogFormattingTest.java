@@ -0,0 +1,44 @@
+package com.udemy.library.web.rest.dto;
+
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogFormattingTest {
+
+    private static String format(StringBuilderFormattable formattable) {
+        StringBuilder buffer = new StringBuilder();
+        formattable.formatTo(buffer);
+        return buffer.toString();
+    }
+
+    @Test
+    @DisplayName("Should format books like toString")
+    public void bookTest() {
+        BookDTO book = BookDTO.builder().id(1L).title("As aventuras").author("Fulano").isbn(123L).build();
+
+        assertThat(format(book)).isEqualTo(book.toString());
+        assertThat(format(new BookDTO())).isEqualTo(new BookDTO().toString());
+    }
+
+    @Test
+    @DisplayName("Should format loans like toString")
+    public void loanTest() {
+        LoanDTO loan = new LoanDTO(1L, "Fulano", 2L, 123L, "As aventuras", "Ciclano");
+
+        assertThat(format(loan)).isEqualTo(loan.toString());
+        assertThat(format(new LoanDTO())).isEqualTo(new LoanDTO().toString());
+    }
+
+    @Test
+    @DisplayName("Should format batch returns like toString")
+    public void batchReturnTest() {
+        BatchReturnDTO batch = BatchReturnDTO.builder().loanIds(Arrays.asList(1L, 2L, 3L)).build();
+
+        assertThat(format(batch)).isEqualTo(batch.toString());
+    }
+}
@@ -0,0 +1,54 @@
+package com.udemy.library.web.rest.mapper;
+
+import com.udemy.library.domain.Book;
+import com.udemy.library.web.rest.dto.BookDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = BookMapperImpl.class)
+public class BookMapperTest {
+
+    @Autowired
+    BookMapper bookMapper;
+
+    @Test
+    @DisplayName("Should map a book to dto and back")
+    public void mapBookTest() {
+        Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
+
+        BookDTO bookDTO = bookMapper.toDto(book);
+
+        assertThat(bookDTO.getId()).isEqualTo(book.getId());
+        assertThat(bookDTO.getTitle()).isEqualTo(book.getTitle());
+        assertThat(bookDTO.getAuthor()).isEqualTo(book.getAuthor());
+        assertThat(bookDTO.getIsbn()).isEqualTo(book.getIsbn());
+        assertThat(bookMapper.toEntity(bookDTO)).isEqualTo(book);
+    }
+
+    @Test
+    @DisplayName("Should map a page of books to dtos")
+    public void mapBookListTest() {
+        Book book = Book.builder().id(10L).author("vitu").title("desgraça").isbn(123231L).build();
+
+        List<BookDTO> bookDTOs = bookMapper.toDto(List.of(book));
+
+        assertThat(bookDTOs.size()).isEqualTo(1);
+        assertThat(bookDTOs.get(0)).isEqualTo(bookMapper.toDto(book));
+    }
+
+    @Test
+    @DisplayName("Should map null values to null")
+    public void mapNullTest() {
+        assertThat(bookMapper.toDto((Book) null)).isNull();
+        assertThat(bookMapper.toEntity(null)).isNull();
+    }
+}
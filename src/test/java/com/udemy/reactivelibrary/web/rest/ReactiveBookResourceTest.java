@@ -0,0 +1,179 @@
+package com.udemy.reactivelibrary.web.rest;
+
+import com.udemy.library.web.rest.dto.BookDTO;
+import com.udemy.library.web.rest.dto.LoanDTO;
+import com.udemy.library.web.rest.dto.ReturnedLoanDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-resource-test?options=DB_CLOSE_DELAY=-1"})
+public class ReactiveBookResourceTest {
+
+    static String BOOK_API = "/api/books";
+    static String LOAN_API = "/api/loans";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("Should create a book and get it by id")
+    public void createAndGetBookTest() {
+        long isbn = randomIsbn();
+
+        BookDTO created = createBook(isbn);
+
+        webTestClient.get().uri(BOOK_API + "/" + created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("id").isEqualTo(created.getId())
+                .jsonPath("title").isEqualTo("desgraça")
+                .jsonPath("isbn").isEqualTo(isbn);
+    }
+
+    @Test
+    @DisplayName("Should throw validation errors like the servlet stack")
+    public void createInvalidBookTest() {
+        webTestClient.post().uri(BOOK_API)
+                .bodyValue(new BookDTO())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors.length()").isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should throw a business error when creating a book with a duplicated isbn")
+    public void createBookWithDuplicatedIsbnTest() {
+        long isbn = randomIsbn();
+        createBook(isbn);
+
+        webTestClient.post().uri(BOOK_API)
+                .bodyValue(BookDTO.builder().author("vitu").title("desgraça").isbn(isbn).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Isbn já cadastrada");
+    }
+
+    @Test
+    @DisplayName("Should update the title, author and isbn of a book")
+    public void updateBookTest() {
+        BookDTO created = createBook(randomIsbn());
+        long isbn = randomIsbn();
+
+        webTestClient.put().uri(BOOK_API + "/" + created.getId())
+                .bodyValue(BookDTO.builder().author("vitor").title("outro").isbn(isbn).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("id").isEqualTo(created.getId())
+                .jsonPath("isbn").isEqualTo(isbn);
+
+        webTestClient.get().uri(BOOK_API + "/" + created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("title").isEqualTo("outro")
+                .jsonPath("author").isEqualTo("vitor")
+                .jsonPath("isbn").isEqualTo(isbn);
+    }
+
+    @Test
+    @DisplayName("Should return not found for a missing book")
+    public void bookNotFoundTest() {
+        webTestClient.get().uri(BOOK_API + "/" + Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should filter books and report whether there is a next page")
+    public void findBooksTest() {
+        long isbn = randomIsbn();
+        createBook(isbn);
+
+        webTestClient.get().uri(uri -> uri.path(BOOK_API).queryParam("isbn", isbn).queryParam("size", 1).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(1)
+                .jsonPath("content[0].isbn").isEqualTo(isbn)
+                .jsonPath("hasNext").isEqualTo(false);
+    }
+
+    @Test
+    @DisplayName("Should loan a book once, reject a second loan and allow it again after return")
+    public void loanAndReturnTest() {
+        long isbn = randomIsbn();
+        createBook(isbn);
+        LoanDTO loanDTO = LoanDTO.builder().isbn(isbn).customer("vitu").build();
+
+        Long loanId = webTestClient.post().uri(LOAN_API)
+                .bodyValue(loanDTO)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Long.class)
+                .returnResult().getResponseBody();
+
+        webTestClient.post().uri(LOAN_API)
+                .bodyValue(loanDTO)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Book already loaned");
+
+        webTestClient.patch().uri(LOAN_API + "/" + loanId)
+                .bodyValue(ReturnedLoanDTO.builder().returned(true).build())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.post().uri(LOAN_API)
+                .bodyValue(loanDTO)
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.get().uri(uri -> uri.path(LOAN_API).queryParam("isbn", isbn).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content.length()").isEqualTo(2)
+                .jsonPath("content[0].book.isbn").isEqualTo(isbn);
+    }
+
+    @Test
+    @DisplayName("Should throw a bad request when loaning a missing book")
+    public void loanMissingBookTest() {
+        webTestClient.post().uri(LOAN_API)
+                .bodyValue(LoanDTO.builder().isbn(randomIsbn()).customer("vitu").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("errors[0]").isEqualTo("Book not found for passed isbn");
+    }
+
+    private BookDTO createBook(long isbn) {
+        return webTestClient.post().uri(BOOK_API)
+                .bodyValue(BookDTO.builder().author("vitu").title("desgraça").isbn(isbn).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookDTO.class)
+                .returnResult().getResponseBody();
+    }
+
+    private static long randomIsbn() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+}